@@ -0,0 +1,86 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable CharSequence view of a range of ASCII bytes in a ByteBuffer. Lets a line that arrives as bytes be
+ * tokenized and evaluated in place, without decoding it into a String. Each byte is read as the char with the same
+ * value (ISO-8859-1), which is exact for ASCII input.
+ *
+ * The view does not copy the bytes: it reflects the buffer's current contents, and is only valid until the range is
+ * overwritten. Rewrap it for each line.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class AsciiCharSequence implements CharSequence
+{
+    private ByteBuffer bytes;
+    private int start;
+    private int length;
+
+    /**
+     * Points this view at a range of bytes.
+     *
+     * @param bytes The buffer holding the bytes. Its position and limit are ignored and left unchanged.
+     * @param start The index of the first byte (inclusive).
+     * @param end The index of the last byte (exclusive).
+     * @return This view.
+     */
+    public AsciiCharSequence wrap(ByteBuffer bytes, int start, int end)
+    {
+        this.bytes = bytes;
+        this.start = start;
+        this.length = end - start;
+        return this;
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        return (char) (bytes.get(start + index) & 0xFF);
+    }
+
+    /**
+     * Parses a range of the view as a decimal int straight from the bytes. See OperandParser.parseInt(ByteBuffer,
+     * int, int).
+     *
+     * @param from The index of the first char of the operand.
+     * @param to The index after the last char of the operand.
+     * @return The int value, or CalculatorTokenizer.NOT_AN_INT if the range is not an int.
+     */
+    public long parseInt(int from, int to)
+    {
+        return OperandParser.parseInt(bytes, start + from, start + to);
+    }
+
+    /**
+     * @return A new String holding the characters in the given range. Allocates.
+     */
+    @Override
+    public CharSequence subSequence(int from, int to)
+    {
+        if(from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of length " + length);
+        }
+        byte[] copy = new byte[to - from];
+        for(int i = 0; i < copy.length; i++) {
+            copy[i] = bytes.get(start + from + i);
+        }
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @return The characters as a new String. Allocates.
+     */
+    @Override
+    public String toString()
+    {
+        return subSequence(0, length).toString();
+    }
+}
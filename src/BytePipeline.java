@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Evaluates a stream of command lines from bytes to bytes. Input is read in large chunks into a ByteBuffer, lines are
+ * found by scanning for line terminators, each line is tokenized and evaluated in place through an AsciiCharSequence
+ * view of its bytes (its operands parsed straight from the bytes by OperandParser), and each result is written by
+ * CalculatorFormatter straight into an output ByteBuffer. No String (or any other object) is created per line, so the
+ * heap stays flat however long the input is.
+ *
+ * The output is the same as the interactive Driver prints, minus the prompts: one result per line, stopping at
+ * "quit" or the end of the input. Lines end with "\n", "\r" or "\r\n", like BufferedReader.readLine. A line holding
+ * bytes outside ASCII is decoded as UTF-8 into a reused buffer first, so non-ASCII digits are accepted exactly as they
+ * are on the String path.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public final class BytePipeline
+{
+    private final CalculatorTokenizer Tokens = new CalculatorTokenizer();
+    private final CalculatorResult result = new CalculatorResult();
+    private final AsciiCharSequence ascii = new AsciiCharSequence();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private CharBuffer decoded = CharBuffer.allocate(256);
+    private ByteBuffer input;
+    private final ByteBuffer output;
+    private final WritableByteChannel out;
+    private final int flushLines;
+
+    /**
+     * @param out The channel to write the results to.
+     * @param bufferSize The size of the input and output buffers. The input buffer grows if a line does not fit.
+     * @param flushLines The number of results between flushes of the output, or 0 to flush only when the output
+     * buffer is full, on "quit" and at the end of the input.
+     */
+    public BytePipeline(WritableByteChannel out, int bufferSize, int flushLines)
+    {
+        this.out = out;
+        this.flushLines = flushLines;
+        this.input = ByteBuffer.allocateDirect(bufferSize);
+        this.output = ByteBuffer.allocateDirect(Math.max(bufferSize, CalculatorFormatter.MAX_LINE_LENGTH));
+    }
+
+    /**
+     * Evaluates the lines of a channel until "quit" or the end of its input, and flushes the results. The input
+     * channel is not closed.
+     *
+     * @param in The channel to read the commands from.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public long run(ReadableByteChannel in) throws IOException
+    {
+        long count = 0;
+        boolean skipLineFeed = false;
+        input.clear();
+        try {
+        	while(true) {
+        		boolean eof = in.read(input) < 0;
+        		int limit = input.position();
+        		int lineStart = 0;
+        		for(int i = 0; i < limit; i++) {
+        			byte b = input.get(i);
+        			if(b != '\n' && b != '\r') {
+        				continue;
+        			}
+        			if(skipLineFeed && i == lineStart && b == '\n') {
+        				// The "\n" of a "\r\n" pair whose "\r" ended the previous line:
+        				skipLineFeed = false;
+        				lineStart = i + 1;
+        				continue;
+        			}
+        			count++;
+        			if(evaluateLine(lineStart, i)) {
+        				return count;
+        			}
+        			if(flushLines > 0 && count % flushLines == 0) {
+        				flush();
+        			}
+        			skipLineFeed = b == '\r';
+        			lineStart = i + 1;
+        		}
+        		if(eof) {
+        			if(lineStart < limit) {
+        				// The final line has no line terminator:
+        				count++;
+        				evaluateLine(lineStart, limit);
+        			}
+        			return count;
+        		}
+        		compact(lineStart, limit);
+        	}
+        }
+        finally {
+        	flush();
+        }
+    }
+
+    /**
+     * Moves the unfinished line at the end of the input buffer to its start, growing the buffer if the line fills it.
+     *
+     * @param lineStart The index of the first byte of the unfinished line.
+     * @param limit The index after the last byte read.
+     */
+    private void compact(int lineStart, int limit)
+    {
+        if(lineStart == 0 && limit == input.capacity()) {
+        	ByteBuffer larger = ByteBuffer.allocateDirect(input.capacity() * 2);
+        	input.flip();
+        	larger.put(input);
+        	input = larger;
+        	return;
+        }
+        input.limit(limit).position(lineStart);
+        input.compact();
+    }
+
+    /**
+     * Evaluates one line of the input buffer and appends its result to the output buffer.
+     *
+     * @param start The index of the first byte of the line.
+     * @param end The index after the last byte of the line.
+     * @return true if the line was "quit"; nothing is written for it.
+     * @throws IOException If the output cannot be written.
+     */
+    private boolean evaluateLine(int start, int end) throws IOException
+    {
+        boolean isAscii = true;
+        for(int i = start; i < end; i++) {
+        	if(input.get(i) < 0) {
+        		isAscii = false;
+        		break;
+        	}
+        }
+        if(isAscii) {
+        	Tokens.reset(ascii.wrap(input, start, end));
+        }
+        else {
+        	Tokens.reset(decode(start, end));
+        }
+        Calculator.evaluate(Tokens, result);
+        if(result.isQuit()) {
+        	return true;
+        }
+        if(output.remaining() < CalculatorFormatter.MAX_LINE_LENGTH) {
+        	flush();
+        }
+        CalculatorFormatter.writeLine(result, output);
+        return false;
+    }
+
+    /**
+     * Decodes a line of the input buffer as UTF-8 into the reusable char buffer, growing it if the line does not fit.
+     *
+     * @param start The index of the first byte of the line.
+     * @param end The index after the last byte of the line.
+     * @return The decoded line.
+     */
+    private CharBuffer decode(int start, int end)
+    {
+        int position = input.position();
+        while(true) {
+        	input.limit(end).position(start);
+        	decoded.clear();
+        	decoder.reset();
+        	if(!decoder.decode(input, decoded, true).isOverflow() && !decoder.flush(decoded).isOverflow()) {
+        		break;
+        	}
+        	decoded = CharBuffer.allocate(decoded.capacity() * 2);
+        }
+        input.limit(input.capacity()).position(position);
+        decoded.flip();
+        return decoded;
+    }
+
+    /**
+     * Writes the contents of the output buffer to the output channel.
+     *
+     * @throws IOException If the output cannot be written.
+     */
+    private void flush() throws IOException
+    {
+        output.flip();
+        while(output.hasRemaining()) {
+        	out.write(output);
+        }
+        output.clear();
+    }
+}
@@ -0,0 +1,51 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for the BytePipeline class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class BytePipelineTest {
+
+    /**
+     * Test that the byte pipeline produces the same lines as parseAndExecute for every buffer size, with lines and
+     * "\r\n" pairs cut off by the end of a chunk, and stops at quit:
+     */
+    public void runTestMatchesParseAndExecute() throws Exception
+    {
+        String commands = "negate 5\r\n1 + 2\rfoo\n5 / 0\r\n\r\nhalve x\n\n\u0661\u0662 + 1\n1 2 3 4\r"
+                + "-2147483648 - 1\nquit\n1 + 1\n";
+        byte[] input = commands.getBytes(StandardCharsets.UTF_8);
+        StringBuilder expected = new StringBuilder();
+        for (String line : new String[] {"negate 5", "1 + 2", "foo", "5 / 0", "", "halve x", "",
+                "\u0661\u0662 + 1", "1 2 3 4", "-2147483648 - 1"})
+        {
+            expected.append(Calculator.parseAndExecute(line)).append(System.lineSeparator());
+        }
+
+        for (int bufferSize = 4; bufferSize < 40; bufferSize++)
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            BytePipeline pipeline = new BytePipeline(Channels.newChannel(output), bufferSize, 3);
+            Assert.assertEquals(11, (int) pipeline.run(Channels.newChannel(new ByteArrayInputStream(input))));
+            Assert.assertEquals(expected.toString(), output.toString("US-ASCII"));
+        }
+    }
+
+    /**
+     * Test that a final line without a line terminator is evaluated:
+     */
+    public void runTestUnterminatedLastLine() throws Exception
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BytePipeline pipeline = new BytePipeline(Channels.newChannel(output), 64, 0);
+        byte[] input = "halve 9\n7 - 9".getBytes(StandardCharsets.US_ASCII);
+        Assert.assertEquals(2, (int) pipeline.run(Channels.newChannel(new ByteArrayInputStream(input))));
+        Assert.assertEquals("The result is: 4" + System.lineSeparator() + "The result is: -2"
+                + System.lineSeparator(), output.toString("US-ASCII"));
+    }
+}
@@ -1,13 +1,42 @@
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
 /**
  * A class representing a simple calculator. The calculator takes in an input string and interprets it as a command.
  * The calculator evaluates the command and returns a result.
  *
+ * Commands are dispatched through the precompiled tables of CalculatorOperators rather than by comparing the command
+ * Token against each valid command in turn.
+ *
  * @author Stephen Thung
  * @version 2019-02-13
  */
 
 public class Calculator
 {
+    /**
+     * Batches with fewer commands than this are evaluated sequentially by evaluateAllParallel; splitting them across
+     * threads costs more than it saves.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * The smallest range of a parallel batch that is handed to a single thread.
+     */
+    private static final int MIN_PARALLEL_LEAF = 1 << 12;
+
+    /**
+     * The cache parseAndExecute consults before evaluating a line, or null for no caching.
+     */
+    private static volatile CalculatorCache resultCache;
+
+    /**
+     * The metrics evaluate and execute report to, or null for no metering.
+     */
+    private static volatile CalculatorMetrics metrics;
+
     /**
      * Takes an input command of two string Tokens and simulates a calculator command.
      * The Token Length should never be something either than 2. If it is, there is an issue in execute().
@@ -34,16 +63,25 @@ public class Calculator
      */
     protected static int calculateTwoTokens(String[] Tokens) throws NumberFormatException, CalculatorException
     {
-        int a = Integer.parseInt(Tokens[1]); // Throws NumberFormatException if the second Token is not an int value.
-        if(Tokens[0] == "negate") {
-        	return a * -1;
-        }
-        else if(Tokens[0] == "halve") {
-        	return a / 2;
-        }
-        else {
+        return calculateTwoTokens(Tokens, findCommand(Tokens));
+    }
+
+    /**
+     * calculateTwoTokens(String[]) with the command already looked up.
+     *
+     * @param Tokens The input string to the program Tokenized. Should be a String array of two elements.
+     * @param slot The slot of the first Token in UNARY, or -1 if it is not a two-Token command.
+     * @return The result of the calculator operation.
+     * @throws NumberFormatException Thrown if the second Token is not convertible from String to int.
+     * @throws CalculatorException Thrown if the first Token is not a valid command ("negate" or "halve")
+     */
+    private static int calculateTwoTokens(String[] Tokens, int slot) throws NumberFormatException, CalculatorException
+    {
+        int a = parseInt(Tokens[1]); // Throws NumberFormatException if the second Token is not an int value.
+        if(slot < 0) {
         	throw new CalculatorException("Illegal Command");
         }
+        return CalculatorOperators.UNARY.operator(slot).applyAsInt(a);
     }
 
     /**
@@ -77,25 +115,45 @@ public class Calculator
     protected static int calculateThreeTokens(String[] Tokens)
             throws ArithmeticException, NumberFormatException, CalculatorException
     {
-    	int a = Integer.parseInt(Tokens[0]);
-    	int b = Integer.parseInt(Tokens[2]);
-        if(Tokens[1] == "+") {
-        	return a + b;
-        }
-        else if(Tokens[1] == "-") {
-        	return a - b;
-        }
-        else if(Tokens[1] == "/") {
-        	if(b == 0) {
-        		throw new ArithmeticException("A division by zero has occurred");
-        	}
-        	else {
-        		return a / b;
-        	}
-        }
-        else {
+        return calculateThreeTokens(Tokens, findCommand(Tokens));
+    }
+
+    /**
+     * calculateThreeTokens(String[]) with the command already looked up.
+     *
+     * @param Tokens The input string to the program Tokenized. Should be a String array of three elements.
+     * @param slot The slot of the second Token in BINARY, or -1 if it is not a three-Token command.
+     * @return The result of the calculator operation.
+     * @throws ArithmeticException A division by zero has occured.
+     * @throws NumberFormatException Thrown if the first or third Token is not convertible from String to int.
+     * @throws CalculatorException Thrown if the second Token is not a valid command ("+", "-", or "/")
+     */
+    private static int calculateThreeTokens(String[] Tokens, int slot)
+            throws ArithmeticException, NumberFormatException, CalculatorException
+    {
+    	int a = parseInt(Tokens[0]);
+    	int b = parseInt(Tokens[2]);
+        if(slot < 0) {
         	throw new CalculatorException("Illegal Command");
         }
+        else if(b == 0 && CalculatorOperators.isDivision(CalculatorOperators.BINARY.opcode(slot))) {
+        	throw new ArithmeticException("A division by zero has occurred");
+        }
+        return CalculatorOperators.BINARY.operator(slot).applyAsInt(a, b);
+    }
+
+    /**
+     * Parses a numeric Token exactly as Integer.parseInt does. Valid Tokens take the fast OperandParser path; only a
+     * Token that is not an int is handed to Integer.parseInt, to throw its usual NumberFormatException.
+     *
+     * @param Token The Token to parse.
+     * @return The int value of the Token.
+     * @throws NumberFormatException Thrown if the Token is not convertible from String to int.
+     */
+    private static int parseInt(String Token) throws NumberFormatException
+    {
+        long value = OperandParser.parseInt(Token, 0, Token.length());
+        return value != CalculatorTokenizer.NOT_AN_INT ? (int) value : Integer.parseInt(Token);
     }
 
     /**
@@ -127,6 +185,65 @@ public class Calculator
      * For the 2 Tokens case, the command Token is the first Token (e.g. "halve 2", halve is the command.
      */
     protected static int execute(String[] Tokens) throws NumberFormatException, CalculatorException
+    {
+        CalculatorMetrics m = metrics;
+        int slot = findCommand(Tokens);
+        if(m == null) {
+        	return dispatch(Tokens, slot);
+        }
+        long start = m.startTimer();
+        try {
+        	int value = dispatch(Tokens, slot);
+        	m.record(Tokens.length, slot, value == Integer.MIN_VALUE && Tokens.length == 1 ? CalculatorStatus.QUIT
+        			: CalculatorStatus.VALUE, start);
+        	return value;
+        }
+        catch(ArithmeticException e) {
+        	m.record(Tokens.length, slot, CalculatorStatus.DIVIDE_BY_ZERO, start);
+        	throw e;
+        }
+        catch(NumberFormatException e) {
+        	m.record(Tokens.length, slot, CalculatorStatus.NUMBER_FORMAT, start);
+        	throw e;
+        }
+        catch(CalculatorException e) {
+        	m.record(Tokens.length, slot, e.getMessage().equals("Illegal Command") ? CalculatorStatus.ILLEGAL_COMMAND
+        			: CalculatorStatus.ILLEGAL_TOKEN_LENGTH, start);
+        	throw e;
+        }
+    }
+
+    /**
+     * Looks up the command of a two- or three-Token input once, for both evaluating and metering it.
+     *
+     * @param Tokens The input string to the calculator split into Tokens.
+     * @return The slot of the first Token in UNARY if there are two Tokens, of the second in BINARY if there are
+     * three, or -1 if that Token is not a command or there are neither two nor three Tokens.
+     */
+    private static int findCommand(String[] Tokens)
+    {
+        switch(Tokens.length)
+        {
+        case 2:
+        	return CalculatorOperators.UNARY.find(Tokens[0], 0, Tokens[0].length());
+        case 3:
+        	return CalculatorOperators.BINARY.find(Tokens[1], 0, Tokens[1].length());
+        default:
+        	return -1;
+        }
+    }
+
+    /**
+     * The body of execute(String[]): dispatches on the number of Tokens, without metering.
+     *
+     * @param Tokens The input string to the calculator split into Tokens and passed as a String array.
+     * @param slot The slot of its command, from findCommand.
+     * @return The result of the command, or Integer.MIN_VALUE for "quit".
+     * @throws ArithmeticException A division by zero has occurred.
+     * @throws NumberFormatException Thrown if a numeric Token is not convertible from String to int.
+     * @throws CalculatorException Thrown if the command or the number of Tokens is invalid.
+     */
+    private static int dispatch(String[] Tokens, int slot) throws NumberFormatException, CalculatorException
     {
         // Condition on the number of Tokens (number of strings in user input separated by spaces)
         switch(Tokens.length)
@@ -134,16 +251,16 @@ public class Calculator
         case 0:
         	throw new CalculatorException("Illegal Token Length");
         case 1:
-        	if(Tokens[0] == "quit") {
+        	if(Tokens[0].equals("quit")) {
         		return Integer.MIN_VALUE;
         	}
         	else {
         		throw new CalculatorException("Illegal Command");
         	}
         case 2:
-        	return calculateTwoTokens(Tokens);
+        	return calculateTwoTokens(Tokens, slot);
         case 3:
-        	return calculateThreeTokens(Tokens);
+        	return calculateThreeTokens(Tokens, slot);
         default:
         	throw new CalculatorException("Illegal Token Length");
         }
@@ -151,13 +268,547 @@ public class Calculator
     }
 
     /**
-     * Method to split up the user input. "Tokenizes" (converts a large string into string chunks) by splitting the
-     * input string on spaces. The Tokenized input is passed to execute to be processed. If the input is bad, execute
-     * will throw an exception. If the input is valid, an int value will be returned. An int value of Integer.MIN_VALUE
-     * is returned by execute if the program should quit.
+     * Non-throwing counterpart of calculateTwoTokens(String[]). Reads the Tokens [command, number] in place from a
+     * tokenizer and reports failures as a status in the result object instead of throwing, with the same precedence:
+     * (0) NUMBER_FORMAT - the second Token is not an int.
+     * (1) ILLEGAL_COMMAND - the first Token is not a two-Token command ("negate" or "halve").
+     * A plugin command that throws is reported as a status too; see CalculatorOperators.apply.
+     *
+     * @param Tokens The tokenized input. Should have two Tokens: [command, number].
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    protected static void evaluateTwoTokens(CalculatorTokenizer Tokens, CalculatorResult result)
+    {
+        evaluateTwoTokens(Tokens, findCommand(Tokens), result);
+    }
+
+    /**
+     * evaluateTwoTokens(CalculatorTokenizer, CalculatorResult) with the command already looked up.
+     *
+     * @param Tokens The tokenized input. Should have two Tokens: [command, number].
+     * @param slot The slot of the first Token in UNARY, or -1 if it is not a two-Token command.
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    private static void evaluateTwoTokens(CalculatorTokenizer Tokens, int slot, CalculatorResult result)
+    {
+        long a = Tokens.tryParseInt(1);
+        if(a == CalculatorTokenizer.NOT_AN_INT) {
+        	result.setStatus(CalculatorStatus.NUMBER_FORMAT);
+        	return;
+        }
+        if(slot < 0) {
+        	result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        }
+        else {
+        	CalculatorOperators.apply(slot, (int) a, result);
+        }
+    }
+
+    /**
+     * Non-throwing counterpart of calculateThreeTokens(String[]). Reads the Tokens [num1, command, num2] in place from
+     * a tokenizer and reports failures as a status in the result object instead of throwing, with the same precedence:
+     * (0) NUMBER_FORMAT - the first or third Token is not an int.
+     * (1) ILLEGAL_COMMAND - the second Token is not a three-Token command (+, -, or /).
+     * (2) DIVIDE_BY_ZERO - the command is a division ("/") and the second number is 0.
+     * A plugin command that throws is reported as a status too; see CalculatorOperators.apply.
+     *
+     * @param Tokens The tokenized input. Should have three Tokens: [num1, command, num2].
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    protected static void evaluateThreeTokens(CalculatorTokenizer Tokens, CalculatorResult result)
+    {
+        evaluateThreeTokens(Tokens, findCommand(Tokens), result);
+    }
+
+    /**
+     * evaluateThreeTokens(CalculatorTokenizer, CalculatorResult) with the command already looked up.
+     *
+     * @param Tokens The tokenized input. Should have three Tokens: [num1, command, num2].
+     * @param slot The slot of the second Token in BINARY, or -1 if it is not a three-Token command.
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    private static void evaluateThreeTokens(CalculatorTokenizer Tokens, int slot, CalculatorResult result)
+    {
+        long a = Tokens.tryParseInt(0);
+        long b = Tokens.tryParseInt(2);
+        if(a == CalculatorTokenizer.NOT_AN_INT || b == CalculatorTokenizer.NOT_AN_INT) {
+        	result.setStatus(CalculatorStatus.NUMBER_FORMAT);
+        	return;
+        }
+        if(slot < 0) {
+        	result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        }
+        else {
+        	CalculatorOperators.apply(slot, (int) a, (int) b, result);
+        }
+    }
+
+    /**
+     * Evaluates a single calculator command in one pass and returns its typed outcome. The input is Tokenized the same
+     * way as in parseAndExecute and evaluated exactly once.
+     *
+     * Evaluation never throws: an invalid command is reported as the error status matching the exception execute would
+     * have thrown, so invalid input costs no more than valid input. Callers that only need the int result should use
+     * this method rather than parseAndExecute, which additionally formats the outcome as a String.
+     *
+     * @param input A CharSequence possibly containing a calculator command. Tokens of the command are separated by
+     * space.
+     * @return The outcome of the command: a value, a request to quit, or the kind of error that occurred.
+     */
+    public static CalculatorResult evaluate(CharSequence input)
+    {
+        CalculatorResult result = new CalculatorResult();
+        evaluate(new CalculatorTokenizer(input), result);
+        return result;
+    }
+
+    /**
+     * Evaluates a single calculator command in one pass and stores its typed outcome in the given result object. See
+     * evaluate(CharSequence).
+     *
+     * @param input A CharSequence possibly containing a calculator command. Tokens of the command are separated by
+     * space.
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    public static void evaluate(CharSequence input, CalculatorResult result)
+    {
+        evaluate(new CalculatorTokenizer(input), result);
+    }
+
+    /**
+     * Evaluates the command the tokenizer is positioned on and stores its typed outcome in the given result object.
+     * Dispatches on the number of Tokens exactly like execute(String[]), but without throwing. Reusing the same
+     * tokenizer and result object across lines makes evaluation allocation free, for valid and invalid commands alike.
+     *
+     * @param Tokens A tokenizer that has been reset to the command to evaluate.
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    public static void evaluate(CalculatorTokenizer Tokens, CalculatorResult result)
+    {
+        CalculatorMetrics m = metrics;
+        int slot = findCommand(Tokens);
+        if(m == null) {
+        	dispatch(Tokens, slot, result);
+        	return;
+        }
+        long start = m.startTimer();
+        dispatch(Tokens, slot, result);
+        m.record(Tokens.count(), slot, result.getStatus(), start);
+    }
+
+    /**
+     * Looks up the command of a two- or three-Token input once, for both evaluating and metering it.
+     *
+     * @param Tokens A tokenizer that has been reset to the command to evaluate.
+     * @return The slot of the first Token in UNARY if there are two Tokens, of the second in BINARY if there are
+     * three, or -1 if that Token is not a command or there are neither two nor three Tokens.
+     */
+    private static int findCommand(CalculatorTokenizer Tokens)
+    {
+        switch(Tokens.count())
+        {
+        case 2:
+        	return CalculatorOperators.UNARY.find(Tokens, 0);
+        case 3:
+        	return CalculatorOperators.BINARY.find(Tokens, 1);
+        default:
+        	return -1;
+        }
+    }
+
+    /**
+     * The body of evaluate(CalculatorTokenizer, CalculatorResult): dispatches on the number of Tokens, without
+     * metering.
+     *
+     * @param Tokens A tokenizer that has been reset to the command to evaluate.
+     * @param slot The slot of its command, from findCommand.
+     * @param result The result object to overwrite with the outcome of the command.
+     */
+    private static void dispatch(CalculatorTokenizer Tokens, int slot, CalculatorResult result)
+    {
+        switch(Tokens.count())
+        {
+        case 1:
+        	if(Tokens.tokenEquals(0, "quit")) {
+        		result.setStatus(CalculatorStatus.QUIT);
+        	}
+        	else {
+        		result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        	}
+        	break;
+        case 2:
+        	evaluateTwoTokens(Tokens, slot, result);
+        	break;
+        case 3:
+        	evaluateThreeTokens(Tokens, slot, result);
+        	break;
+        default:
+        	result.setStatus(CalculatorStatus.ILLEGAL_TOKEN_LENGTH);
+        	break;
+        }
+    }
+
+    /**
+     * Counterpart of evaluateTwoTokens(CalculatorTokenizer, CalculatorResult) for any kind of arithmetic. Reports the
+     * same statuses with the same precedence, plus OVERFLOW when an exact mode overflows.
+     *
+     * @param Tokens The tokenized input. Should have two Tokens: [command, number].
+     * @param result The result object to overwrite with the outcome of the command.
+     * @param arithmetic The kind of arithmetic to evaluate the command with.
+     */
+    private static void evaluateTwoTokens(CalculatorTokenizer Tokens, CalculatorResult result,
+            CalculatorArithmetic arithmetic)
+    {
+        if(!parseOperand(Tokens, 1, arithmetic)) {
+        	result.setStatus(CalculatorStatus.NUMBER_FORMAT);
+        	return;
+        }
+        long a = Tokens.parsedLong();
+        int slot = CalculatorOperators.UNARY.find(Tokens, 0);
+        try {
+        	switch(slot < 0 ? CalculatorOperators.CUSTOM : CalculatorOperators.UNARY.opcode(slot))
+        	{
+        	case CalculatorOperators.NEGATE:
+        		result.setValue(arithmetic.negate(a));
+        		break;
+        	case CalculatorOperators.HALVE:
+        		result.setValue(arithmetic.halve(a));
+        		break;
+        	default:
+        		// Unknown, or a custom command, which is only defined for int arithmetic.
+        		result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        		break;
+        	}
+        }
+        catch(ArithmeticException e) {
+        	result.setStatus(CalculatorStatus.OVERFLOW);
+        }
+    }
+
+    /**
+     * Counterpart of evaluateThreeTokens(CalculatorTokenizer, CalculatorResult) for any kind of arithmetic. Reports the
+     * same statuses with the same precedence, plus OVERFLOW when an exact mode overflows.
+     *
+     * @param Tokens The tokenized input. Should have three Tokens: [num1, command, num2].
+     * @param result The result object to overwrite with the outcome of the command.
+     * @param arithmetic The kind of arithmetic to evaluate the command with.
+     */
+    private static void evaluateThreeTokens(CalculatorTokenizer Tokens, CalculatorResult result,
+            CalculatorArithmetic arithmetic)
+    {
+        if(!parseOperand(Tokens, 0, arithmetic)) {
+        	result.setStatus(CalculatorStatus.NUMBER_FORMAT);
+        	return;
+        }
+        long a = Tokens.parsedLong();
+        if(!parseOperand(Tokens, 2, arithmetic)) {
+        	result.setStatus(CalculatorStatus.NUMBER_FORMAT);
+        	return;
+        }
+        long b = Tokens.parsedLong();
+        int slot = CalculatorOperators.BINARY.find(Tokens, 1);
+        try {
+        	switch(slot < 0 ? CalculatorOperators.CUSTOM : CalculatorOperators.BINARY.opcode(slot))
+        	{
+        	case CalculatorOperators.ADD:
+        		result.setValue(arithmetic.add(a, b));
+        		break;
+        	case CalculatorOperators.SUBTRACT:
+        		result.setValue(arithmetic.subtract(a, b));
+        		break;
+        	case CalculatorOperators.DIVIDE:
+        		if(b == 0) {
+        			result.setStatus(CalculatorStatus.DIVIDE_BY_ZERO);
+        		}
+        		else {
+        			result.setValue(arithmetic.divide(a, b));
+        		}
+        		break;
+        	default:
+        		// Unknown, or a custom command, which is only defined for int arithmetic.
+        		result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        		break;
+        	}
+        }
+        catch(ArithmeticException e) {
+        	result.setStatus(CalculatorStatus.OVERFLOW);
+        }
+    }
+
+    /**
+     * Parses a numeric Token in the range of the given kind of arithmetic. The int range accepts exactly what
+     * Integer.parseInt does, since it has the same syntax as Long.parseLong and only a narrower range.
+     *
+     * @param Tokens The tokenized input.
+     * @param index The index of the numeric Token.
+     * @param arithmetic The kind of arithmetic the operand is for.
+     * @return true if the Token was parsed; its value is then available from Tokens.parsedLong().
+     */
+    private static boolean parseOperand(CalculatorTokenizer Tokens, int index, CalculatorArithmetic arithmetic)
+    {
+        if(!Tokens.tryParseLong(index)) {
+        	return false;
+        }
+        long value = Tokens.parsedLong();
+        return arithmetic.isLong() || value == (int) value;
+    }
+
+    /**
+     * Evaluates a single calculator command with the given kind of arithmetic and returns its typed outcome. See
+     * evaluate(CalculatorTokenizer, CalculatorResult, CalculatorArithmetic).
+     *
+     * @param input A CharSequence possibly containing a calculator command. Tokens of the command are separated by
+     * space.
+     * @param arithmetic The kind of arithmetic to evaluate the command with.
+     * @return The outcome of the command. Read a LONG or LONG_EXACT value with getLongValue().
+     */
+    public static CalculatorResult evaluate(CharSequence input, CalculatorArithmetic arithmetic)
+    {
+        CalculatorResult result = new CalculatorResult();
+        evaluate(new CalculatorTokenizer(input), result, arithmetic);
+        return result;
+    }
+
+    /**
+     * Evaluates the command the tokenizer is positioned on with the given kind of arithmetic, and stores its typed
+     * outcome in the given result object. Behaves like evaluate(CalculatorTokenizer, CalculatorResult) except that:
+     *  - In the LONG modes, numbers are parsed and computed as 64-bit longs.
+     *  - In the exact modes, a result that overflows is reported as OVERFLOW instead of wrapping.
+     *
+     * Values are carried as primitives throughout; read them with getLongValue() (or getValue() in the int modes).
+     *
+     * @param Tokens A tokenizer that has been reset to the command to evaluate.
+     * @param result The result object to overwrite with the outcome of the command.
+     * @param arithmetic The kind of arithmetic to evaluate the command with.
+     */
+    public static void evaluate(CalculatorTokenizer Tokens, CalculatorResult result, CalculatorArithmetic arithmetic)
+    {
+        if(arithmetic == CalculatorArithmetic.INT) {
+        	evaluate(Tokens, result);
+        	return;
+        }
+        switch(Tokens.count())
+        {
+        case 1:
+        	if(Tokens.tokenEquals(0, "quit")) {
+        		result.setStatus(CalculatorStatus.QUIT);
+        	}
+        	else {
+        		result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        	}
+        	break;
+        case 2:
+        	evaluateTwoTokens(Tokens, result, arithmetic);
+        	break;
+        case 3:
+        	evaluateThreeTokens(Tokens, result, arithmetic);
+        	break;
+        default:
+        	result.setStatus(CalculatorStatus.ILLEGAL_TOKEN_LENGTH);
+        	break;
+        }
+    }
+
+    /**
+     * Compiles and evaluates a multi-operator expression such as "1 + 2 - 3 / 4" and stores its outcome in the given
+     * result object. Compile errors are reported as the matching status: NUMBER_FORMAT, ILLEGAL_COMMAND or
+     * ILLEGAL_EXPRESSION. To evaluate the same expression repeatedly, compile it once with
+     * CalculatorExpression.compile instead.
+     *
+     * @param input The expression. See CalculatorExpression for its grammar.
+     * @param result The result object to overwrite with the outcome of the expression.
+     */
+    public static void evaluateExpression(CharSequence input, CalculatorResult result)
+    {
+        try {
+        	CalculatorExpression.compile(input).evaluate(result);
+        }
+        catch(NumberFormatException n) {
+        	result.setStatus(CalculatorStatus.NUMBER_FORMAT);
+        }
+        catch(CalculatorException c) {
+        	if("Illegal Expression".equals(c.getMessage())) {
+        		result.setStatus(CalculatorStatus.ILLEGAL_EXPRESSION);
+        	}
+        	else {
+        		result.setStatus(CalculatorStatus.ILLEGAL_COMMAND);
+        	}
+        }
+    }
+
+    /**
+     * Evaluates a batch of calculator commands, writing the outcome of inputs[i] to values[i] and statuses[i] for every
+     * i in [from, to). statuses[i] holds the CalculatorStatus code of the outcome; values[i] holds the computed value
+     * when the status is VALUE and 0 otherwise. A "quit" command is recorded like any other outcome and does not stop
+     * the batch.
+     *
+     * A single tokenizer and result object are reused for the whole batch, so evaluating a batch allocates nothing.
      *
-     * This method handles the exceptions thrown by execute. The string returned by this method is the final result
-     * of processing a user input, whether it be a valid or invalid command.
+     * @param inputs The commands to evaluate.
+     * @param from The index of the first command to evaluate (inclusive).
+     * @param to The index of the last command to evaluate (exclusive).
+     * @param values Receives the computed values. Must have at least to elements.
+     * @param statuses Receives the status codes. Must have at least to elements.
+     * @throws IllegalArgumentException Thrown if the range does not fit the inputs or either output array.
+     */
+    public static void evaluateAll(CharSequence[] inputs, int from, int to, int[] values, byte[] statuses)
+    {
+        if(from < 0 || from > to || to > inputs.length) {
+        	throw new IllegalArgumentException("Illegal range [" + from + ", " + to + ") for " + inputs.length
+        			+ " inputs");
+        }
+        checkCapacity(to, values, statuses);
+
+        CalculatorTokenizer Tokens = new CalculatorTokenizer();
+        CalculatorResult result = new CalculatorResult();
+        for(int i = from; i < to; i++) {
+        	evaluate(Tokens.reset(inputs[i]), result);
+        	values[i] = result.getValue();
+        	statuses[i] = result.getStatus().code();
+        }
+    }
+
+    /**
+     * Evaluates every command in an array. See evaluateAll(CharSequence[], int, int, int[], byte[]).
+     *
+     * @param inputs The commands to evaluate.
+     * @param values Receives the computed values. Must be at least as long as inputs.
+     * @param statuses Receives the status codes. Must be at least as long as inputs.
+     * @return The number of commands evaluated.
+     * @throws IllegalArgumentException Thrown if either output array is too short.
+     */
+    public static int evaluateAll(CharSequence[] inputs, int[] values, byte[] statuses)
+    {
+        evaluateAll(inputs, 0, inputs.length, values, statuses);
+        return inputs.length;
+    }
+
+    /**
+     * Evaluates every command in a list, in list order. See evaluateAll(CharSequence[], int, int, int[], byte[]).
+     *
+     * @param inputs The commands to evaluate.
+     * @param values Receives the computed values. Must be at least as long as inputs.
+     * @param statuses Receives the status codes. Must be at least as long as inputs.
+     * @return The number of commands evaluated.
+     * @throws IllegalArgumentException Thrown if either output array is too short.
+     */
+    public static int evaluateAll(List<? extends CharSequence> inputs, int[] values, byte[] statuses)
+    {
+        checkCapacity(inputs.size(), values, statuses);
+        return evaluateAll(inputs.iterator(), values, statuses);
+    }
+
+    /**
+     * Evaluates every command in a stream, in encounter order. The stream is consumed sequentially. See
+     * evaluateAll(CharSequence[], int, int, int[], byte[]).
+     *
+     * @param inputs The commands to evaluate.
+     * @param values Receives the computed values.
+     * @param statuses Receives the status codes.
+     * @return The number of commands evaluated.
+     * @throws IllegalArgumentException Thrown if the stream has more commands than the output arrays can hold. The
+     * outcomes of the commands that did fit have already been written.
+     */
+    public static int evaluateAll(Stream<? extends CharSequence> inputs, int[] values, byte[] statuses)
+    {
+        return evaluateAll(inputs.sequential().iterator(), values, statuses);
+    }
+
+    /**
+     * Evaluates every command in an array in parallel on the common fork-join pool. See
+     * evaluateAllParallel(CharSequence[], int[], byte[], ForkJoinPool).
+     *
+     * @param inputs The commands to evaluate.
+     * @param values Receives the computed values. Must be at least as long as inputs.
+     * @param statuses Receives the status codes. Must be at least as long as inputs.
+     * @return The number of commands evaluated.
+     * @throws IllegalArgumentException Thrown if either output array is too short.
+     */
+    public static int evaluateAllParallel(CharSequence[] inputs, int[] values, byte[] statuses)
+    {
+        return evaluateAllParallel(inputs, values, statuses, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates every command in an array in parallel on the given fork-join pool. The array is split into ranges that
+     * are evaluated like evaluateAll(CharSequence[], int, int, int[], byte[]), and the outcome of inputs[i] is always
+     * written to values[i] and statuses[i], so the output is in input order.
+     *
+     * Batches smaller than PARALLEL_THRESHOLD, or a pool with a parallelism of 1, are evaluated sequentially on the
+     * calling thread.
+     *
+     * @param inputs The commands to evaluate.
+     * @param values Receives the computed values. Must be at least as long as inputs.
+     * @param statuses Receives the status codes. Must be at least as long as inputs.
+     * @param pool The pool to evaluate the batch on.
+     * @return The number of commands evaluated.
+     * @throws IllegalArgumentException Thrown if either output array is too short.
+     */
+    public static int evaluateAllParallel(CharSequence[] inputs, int[] values, byte[] statuses, ForkJoinPool pool)
+    {
+        checkCapacity(inputs.length, values, statuses);
+        if(inputs.length < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+        	return evaluateAll(inputs, values, statuses);
+        }
+        // A few ranges per thread keeps the threads busy when some ranges evaluate faster than others.
+        int leafSize = Math.max(MIN_PARALLEL_LEAF, inputs.length / (pool.getParallelism() * 4));
+        pool.invoke(new CalculatorBatchTask(inputs, 0, inputs.length, values, statuses, leafSize));
+        return inputs.length;
+    }
+
+    /**
+     * Evaluates the commands of an iterator in order, reusing one tokenizer and result object.
+     *
+     * @param inputs The commands to evaluate.
+     * @param values Receives the computed values.
+     * @param statuses Receives the status codes.
+     * @return The number of commands evaluated.
+     * @throws IllegalArgumentException Thrown if there are more commands than the output arrays can hold.
+     */
+    private static int evaluateAll(Iterator<? extends CharSequence> inputs, int[] values, byte[] statuses)
+    {
+        int capacity = Math.min(values.length, statuses.length);
+        CalculatorTokenizer Tokens = new CalculatorTokenizer();
+        CalculatorResult result = new CalculatorResult();
+        int count = 0;
+        while(inputs.hasNext()) {
+        	if(count == capacity) {
+        		throw new IllegalArgumentException("More than " + capacity + " inputs for the output arrays");
+        	}
+        	evaluate(Tokens.reset(inputs.next()), result);
+        	values[count] = result.getValue();
+        	statuses[count] = result.getStatus().code();
+        	count++;
+        }
+        return count;
+    }
+
+    /**
+     * Checks that both output arrays of a batch can hold the given number of outcomes.
+     *
+     * @param size The number of outcomes.
+     * @param values The array of computed values.
+     * @param statuses The array of status codes.
+     * @throws IllegalArgumentException Thrown if either array is too short.
+     */
+    private static void checkCapacity(int size, int[] values, byte[] statuses)
+    {
+        if(values.length < size || statuses.length < size) {
+        	throw new IllegalArgumentException("Output arrays of length " + values.length + " and " + statuses.length
+        			+ " cannot hold " + size + " results");
+        }
+    }
+
+    /**
+     * Method to split up the user input and report the result as a String. The input is evaluated once by evaluate,
+     * which "Tokenizes" (converts a large string into string chunks) the input by splitting it on spaces, in place with
+     * a CalculatorTokenizer, and executes the Tokens. If the input is bad, evaluate reports the error as a status
+     * rather than throwing an exception. If the input is valid, an int value is computed, or a quit status is reported
+     * if the program should quit. Unlike the return value of execute, the quit status cannot be confused with a
+     * computed value of Integer.MIN_VALUE.
+     *
+     * The string returned by this method is the final result of processing a user input, whether it be a valid or
+     * invalid command.
      *
      * Valid commands are:
      * "quit" - the program should quit
@@ -181,25 +832,77 @@ public class Calculator
      */
     public static String parseAndExecute(String input)
     {
-        String[] Tokens = input.split(" ");
-        String result = null;
-        try {
-        	if(execute(Tokens) == Integer.MIN_VALUE) {
-        		result = "quit";
-        	}
-        	else {
-        		result = String.format("The result is: %d", execute(Tokens));
-        	}
-        }
-        catch(ArithmeticException a) {
-        	result = "Attempted to divide by 0. Please try again.";
+        CalculatorCache cache = resultCache;
+        if(cache != null) {
+        	return cache.get(input, Calculator::format);
         }
-        catch(NumberFormatException n) {
-        	result = "Input number cannot be parsed to an int. Please try again.";
-        }
-        catch(CalculatorException c) {
-        	result = String.format("Calculator Exception, message is: %s", c.getMessage());
-        }
-        return result;
+        return format(input);
+    }
+
+    /**
+     * Evaluates a line and formats its outcome as parseAndExecute does, without consulting the result cache.
+     *
+     * @param input A String possibly containing a calculator command.
+     * @return The result of the command, formatted like parseAndExecute(String).
+     */
+    private static String format(String input)
+    {
+        return CalculatorFormatter.format(evaluate(input));
+    }
+
+    /**
+     * Installs a cache of parseAndExecute results, or removes it. With a cache installed, parseAndExecute returns the
+     * cached result of a line it has seen before without tokenizing, evaluating or formatting it again. No cache is
+     * installed by default.
+     *
+     * @param cache The cache to use, or null to stop caching.
+     */
+    public static void setResultCache(CalculatorCache cache)
+    {
+        resultCache = cache;
+    }
+
+    /**
+     * @return The installed cache of parseAndExecute results, or null if none is installed.
+     */
+    public static CalculatorCache getResultCache()
+    {
+        return resultCache;
+    }
+
+    /**
+     * Installs metrics that evaluate(CalculatorTokenizer, CalculatorResult) and execute(String[]) report every
+     * command, outcome and a sample of latencies to, or removes them. Everything built on those two methods (the
+     * batch, file, pipeline and server paths, and parseAndExecute) is metered with them, except that a line
+     * parseAndExecute serves from an installed result cache is not evaluated and so not metered; the cache counts
+     * those hits itself. No metrics are installed by default, and without them evaluation does no metering work at
+     * all.
+     *
+     * @param calculatorMetrics The metrics to report to, or null to stop metering.
+     */
+    public static void setMetrics(CalculatorMetrics calculatorMetrics)
+    {
+        metrics = calculatorMetrics;
+    }
+
+    /**
+     * @return The installed metrics, or null if none are installed.
+     */
+    public static CalculatorMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Same as parseAndExecute(String), but evaluates the command with the given kind of arithmetic. In the exact modes
+     * an overflow is reported as "Arithmetic overflow. Please try again."
+     *
+     * @param input A String possibly containing a calculator command. Tokens of the command are separated by space.
+     * @param arithmetic The kind of arithmetic to evaluate the command with.
+     * @return The result of the command, formatted like parseAndExecute(String).
+     */
+    public static String parseAndExecute(String input, CalculatorArithmetic arithmetic)
+    {
+        return CalculatorFormatter.format(evaluate(input, arithmetic));
     }
 }
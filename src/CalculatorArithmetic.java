@@ -0,0 +1,157 @@
+/**
+ * The kinds of arithmetic a Calculator can evaluate commands with. Operands and results are carried in a long in every
+ * mode; the int modes parse operands in the int range and produce int results.
+ *
+ *  INT - 32-bit int arithmetic that wraps silently on overflow, as the calculator has always done.
+ *  INT_EXACT - 32-bit int arithmetic that reports overflow instead of wrapping.
+ *  LONG - 64-bit long arithmetic that wraps silently on overflow.
+ *  LONG_EXACT - 64-bit long arithmetic that reports overflow instead of wrapping.
+ *
+ * The exact modes are built on Math.addExact, Math.subtractExact and Math.negateExact, and throw an
+ * ArithmeticException("integer overflow" or "long overflow") when a result does not fit. Calculator reports that as
+ * the OVERFLOW status.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public enum CalculatorArithmetic
+{
+    INT(false, false),
+    INT_EXACT(false, true),
+    LONG(true, false),
+    LONG_EXACT(true, true);
+
+    /**
+     * true if operands and results are 64-bit.
+     */
+    private final boolean wide;
+
+    /**
+     * true if overflow is reported rather than wrapped.
+     */
+    private final boolean exact;
+
+    /**
+     * @param wide true if operands and results are 64-bit.
+     * @param exact true if overflow is reported rather than wrapped.
+     */
+    CalculatorArithmetic(boolean wide, boolean exact)
+    {
+        this.wide = wide;
+        this.exact = exact;
+    }
+
+    /**
+     * @return true if operands and results are 64-bit longs rather than 32-bit ints.
+     */
+    public boolean isLong()
+    {
+        return wide;
+    }
+
+    /**
+     * @return true if overflow is reported rather than wrapped.
+     */
+    public boolean isExact()
+    {
+        return exact;
+    }
+
+    /**
+     * @param a The operand.
+     * @return -a.
+     * @throws ArithmeticException Thrown in an exact mode if the result overflows.
+     */
+    long negate(long a)
+    {
+        switch(this)
+        {
+        case INT:
+        	return (int) a * -1;
+        case INT_EXACT:
+        	return Math.negateExact((int) a);
+        case LONG:
+        	return -a;
+        default:
+        	return Math.negateExact(a);
+        }
+    }
+
+    /**
+     * @param a The operand.
+     * @return a / 2, rounded toward zero. Never overflows.
+     */
+    long halve(long a)
+    {
+        return a / 2;
+    }
+
+    /**
+     * @param a The first operand.
+     * @param b The second operand.
+     * @return a + b.
+     * @throws ArithmeticException Thrown in an exact mode if the result overflows.
+     */
+    long add(long a, long b)
+    {
+        switch(this)
+        {
+        case INT:
+        	return (int) a + (int) b;
+        case INT_EXACT:
+        	return Math.addExact((int) a, (int) b);
+        case LONG:
+        	return a + b;
+        default:
+        	return Math.addExact(a, b);
+        }
+    }
+
+    /**
+     * @param a The first operand.
+     * @param b The second operand.
+     * @return a - b.
+     * @throws ArithmeticException Thrown in an exact mode if the result overflows.
+     */
+    long subtract(long a, long b)
+    {
+        switch(this)
+        {
+        case INT:
+        	return (int) a - (int) b;
+        case INT_EXACT:
+        	return Math.subtractExact((int) a, (int) b);
+        case LONG:
+        	return a - b;
+        default:
+        	return Math.subtractExact(a, b);
+        }
+    }
+
+    /**
+     * @param a The dividend.
+     * @param b The divisor. Must not be 0; callers check for a division by zero first.
+     * @return a / b, rounded toward zero.
+     * @throws ArithmeticException Thrown in an exact mode if the result overflows (the smallest value divided by -1).
+     */
+    long divide(long a, long b)
+    {
+        switch(this)
+        {
+        case INT:
+        	return (int) a / (int) b;
+        case INT_EXACT:
+        	if(a == Integer.MIN_VALUE && b == -1) {
+        		throw new ArithmeticException("integer overflow");
+        	}
+        	return (int) a / (int) b;
+        case LONG:
+        	return a / b;
+        default:
+        	if(a == Long.MIN_VALUE && b == -1) {
+        		throw new ArithmeticException("long overflow");
+        	}
+        	return a / b;
+        }
+    }
+}
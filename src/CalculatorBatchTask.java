@@ -0,0 +1,61 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join task that evaluates a range of a batch of calculator commands. The range is split in halves until it is
+ * small enough to evaluate sequentially with Calculator.evaluateAll. Each command's outcome is written to the same
+ * index of the output arrays, so the results are in input order no matter which thread evaluated them.
+ *
+ * The calculator operations are pure, and every leaf uses its own tokenizer and result object, so leaves share no
+ * mutable state besides disjoint ranges of the output arrays.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+class CalculatorBatchTask extends RecursiveAction
+{
+    /**
+     * Added to disable warnings.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final CharSequence[] inputs;
+    private final int from;
+    private final int to;
+    private final int[] values;
+    private final byte[] statuses;
+
+    /**
+     * The largest range that is evaluated sequentially instead of being split further.
+     */
+    private final int leafSize;
+
+    /**
+     * @param inputs The commands to evaluate.
+     * @param from The index of the first command to evaluate (inclusive).
+     * @param to The index of the last command to evaluate (exclusive).
+     * @param values Receives the computed values.
+     * @param statuses Receives the status codes.
+     * @param leafSize The largest range that is evaluated sequentially instead of being split further.
+     */
+    CalculatorBatchTask(CharSequence[] inputs, int from, int to, int[] values, byte[] statuses, int leafSize)
+    {
+        this.inputs = inputs;
+        this.from = from;
+        this.to = to;
+        this.values = values;
+        this.statuses = statuses;
+        this.leafSize = leafSize;
+    }
+
+    @Override
+    protected void compute()
+    {
+        if(to - from <= leafSize) {
+        	Calculator.evaluateAll(inputs, from, to, values, statuses);
+        	return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new CalculatorBatchTask(inputs, from, middle, values, statuses, leafSize),
+        		new CalculatorBatchTask(inputs, middle, to, values, statuses, leafSize));
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Microbenchmarks for Calculator parsing and evaluation. Measures the average time and the heap allocation per call of
+ * parseAndExecute, execute, calculateTwoTokens, calculateThreeTokens and evaluate on workloads of valid lines,
+ * malformed numbers, illegal commands, divisions by zero and wrong Token counts.
+ *
+ * Each benchmark/workload pair runs in a fresh JVM, so the JIT profile of one benchmark cannot affect another, with
+ * timed warmup iterations before the measured ones. Allocation is read from the per-thread allocation counter of the
+ * HotSpot ThreadMXBean, which is what a GC allocation profiler reports.
+ *
+ * Usage: java CalculatorBenchmark [benchmark name prefix]
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorBenchmark
+{
+    private static final String[] BENCHMARKS = {
+            "parseAndExecute", "evaluate", "execute", "calculateTwoTokens", "calculateThreeTokens"
+    };
+
+    private static final String[] WORKLOADS = {
+            "valid", "malformedNumber", "illegalCommand", "divideByZero", "tokenLength"
+    };
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 500_000_000L;
+
+    /**
+     * Results are folded into this field so the JIT cannot discard the benchmarked calls.
+     */
+    private static volatile int sink;
+
+    /**
+     * Runs every benchmark whose name starts with the given prefix, each in its own JVM, and prints a results table.
+     * With "--single benchmark workload" runs one benchmark in this JVM and prints its raw result line instead.
+     *
+     * @param args An optional benchmark name prefix, or "--single", a benchmark and a workload.
+     * @throws Exception If a forked benchmark JVM cannot be run.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if(args.length == 3 && args[0].equals("--single")) {
+        	double[] result = run(args[1], args[2]);
+        	System.out.println(result[0] + " " + result[1]);
+        	return;
+        }
+
+        String prefix = args.length > 0 ? args[0] : "";
+        System.out.println(String.format("%-22s %-16s %12s %12s", "Benchmark", "Workload", "ns/op", "B/op"));
+        for(String benchmark : BENCHMARKS) {
+        	if(!benchmark.startsWith(prefix)) {
+        		continue;
+        	}
+        	for(String workload : WORKLOADS) {
+        		double[] result = fork(benchmark, workload);
+        		if(result == null) {
+        			continue; // Not applicable, e.g. calculateTwoTokens on three-Token lines.
+        		}
+        		System.out.println(String.format("%-22s %-16s %12.1f %12.1f", benchmark, workload, result[0],
+        				result[1]));
+        	}
+        }
+    }
+
+    /**
+     * Runs one benchmark in a new JVM with the same class path.
+     *
+     * @param benchmark The benchmark name.
+     * @param workload The workload name.
+     * @return The nanoseconds and bytes allocated per call, or null if the benchmark does not apply to the workload.
+     * @throws IOException If the JVM cannot be started.
+     * @throws InterruptedException If interrupted while waiting for the JVM.
+     */
+    private static double[] fork(String benchmark, String workload) throws IOException, InterruptedException
+    {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        		CalculatorBenchmark.class.getName(), "--single", benchmark, workload)
+        		.redirectErrorStream(true).start();
+        String line;
+        String last = null;
+        try(BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+        	while((line = out.readLine()) != null) {
+        		last = line;
+        	}
+        }
+        if(process.waitFor() != 0 || last == null) {
+        	throw new IOException("Benchmark " + benchmark + " " + workload + " failed: " + last);
+        }
+        if(last.equals("n/a")) {
+        	return null;
+        }
+        String[] parts = last.split(" ");
+        return new double[] {Double.parseDouble(parts[0]), Double.parseDouble(parts[1])};
+    }
+
+    /**
+     * Runs one benchmark in this JVM.
+     *
+     * @param benchmark The benchmark name.
+     * @param workload The workload name.
+     * @return The nanoseconds and bytes allocated per call.
+     */
+    private static double[] run(String benchmark, String workload)
+    {
+        String[] lines = lines(workload);
+        IntUnaryOperator operation = operation(benchmark, lines);
+        if(operation == null) {
+        	System.out.println("n/a");
+        	System.exit(0);
+        }
+
+        for(int i = 0; i < WARMUP_ITERATIONS; i++) {
+        	iteration(operation, lines.length);
+        }
+        double nanos = 0;
+        double bytes = 0;
+        for(int i = 0; i < MEASURED_ITERATIONS; i++) {
+        	double[] result = iteration(operation, lines.length);
+        	nanos += result[0];
+        	bytes += result[1];
+        }
+        return new double[] {nanos / MEASURED_ITERATIONS, bytes / MEASURED_ITERATIONS};
+    }
+
+    /**
+     * Calls an operation repeatedly on every line of a workload for ITERATION_NANOS.
+     *
+     * @param operation The operation, taking the index of a line.
+     * @param count The number of lines.
+     * @return The nanoseconds and bytes allocated per call.
+     */
+    private static double[] iteration(IntUnaryOperator operation, int count)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long calls = 0;
+        int folded = 0;
+        long startBytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+        	for(int i = 0; i < count; i++) {
+        		folded += operation.applyAsInt(i);
+        	}
+        	calls += count;
+        	elapsed = System.nanoTime() - start;
+        } while(elapsed < ITERATION_NANOS);
+        long bytes = threads.getThreadAllocatedBytes(thread) - startBytes;
+        sink = folded;
+        return new double[] {(double) elapsed / calls, (double) bytes / calls};
+    }
+
+    /**
+     * @param workload The workload name.
+     * @return The command lines of the workload.
+     */
+    static String[] lines(String workload)
+    {
+        switch(workload)
+        {
+        case "valid":
+        	return new String[] {"negate 5", "halve 123456", "17 + 25", "100 - 58", "1000 / 7", "negate -2048",
+        			"-300 + 2000000"};
+        case "malformedNumber":
+        	return new String[] {"negate 5x", "halve 99999999999", "12a + 3", "4 - b", "1.5 / 2", "halve -"};
+        case "illegalCommand":
+        	return new String[] {"double 4", "1 * 2", "foo", "7 % 3", "NEGATE 1", "quit!"};
+        case "divideByZero":
+        	return new String[] {"1 / 0", "-5 / 0", "2147483647 / 0"};
+        case "tokenLength":
+        	return new String[] {"1 + 2 + 3", " ", "a b c d", "negate 1 2 3", "     "};
+        default:
+        	throw new IllegalArgumentException("Unknown workload: " + workload);
+        }
+    }
+
+    /**
+     * Builds the operation a benchmark calls for each line. Lines are split up front for the benchmarks that take
+     * Tokens, so only the benchmarked method is measured.
+     *
+     * @param benchmark The benchmark name.
+     * @param lines The command lines of the workload.
+     * @return The operation, taking the index of a line, or null if the benchmark does not apply to the workload.
+     */
+    private static IntUnaryOperator operation(String benchmark, String[] lines)
+    {
+        String[][] tokens = new String[lines.length][];
+        for(int i = 0; i < lines.length; i++) {
+        	tokens[i] = lines[i].split(" ");
+        }
+
+        switch(benchmark)
+        {
+        case "parseAndExecute":
+        	return i -> Calculator.parseAndExecute(lines[i]).length();
+        case "evaluate":
+        	CalculatorTokenizer tokenizer = new CalculatorTokenizer();
+        	CalculatorResult result = new CalculatorResult();
+        	return i -> {
+        		Calculator.evaluate(tokenizer.reset(lines[i]), result);
+        		return result.getValue() + result.getStatus().ordinal();
+        	};
+        case "execute":
+        	return i -> {
+        		try {
+        			return Calculator.execute(tokens[i]);
+        		}
+        		catch(CalculatorException | RuntimeException e) {
+        			return -1;
+        		}
+        	};
+        case "calculateTwoTokens":
+        	String[][] two = withLength(tokens, 2);
+        	if(two.length == 0) {
+        		return null;
+        	}
+        	return i -> {
+        		try {
+        			return Calculator.calculateTwoTokens(two[i % two.length]);
+        		}
+        		catch(CalculatorException | RuntimeException e) {
+        			return -1;
+        		}
+        	};
+        case "calculateThreeTokens":
+        	String[][] three = withLength(tokens, 3);
+        	if(three.length == 0) {
+        		return null;
+        	}
+        	return i -> {
+        		try {
+        			return Calculator.calculateThreeTokens(three[i % three.length]);
+        		}
+        		catch(CalculatorException | RuntimeException e) {
+        			return -1;
+        		}
+        	};
+        default:
+        	throw new IllegalArgumentException("Unknown benchmark: " + benchmark);
+        }
+    }
+
+    /**
+     * @param tokens Tokenized lines.
+     * @param length A Token count.
+     * @return The lines with exactly that many Tokens.
+     */
+    private static String[][] withLength(String[][] tokens, int length)
+    {
+        List<String[]> matching = new ArrayList<>();
+        for(String[] line : tokens) {
+        	if(line.length == length) {
+        		matching.add(line);
+        	}
+        }
+        return matching.toArray(new String[0][]);
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A three-Token calculator command such as "6 * 7", supplied by a plugin. Implementations are discovered with
+ * ServiceLoader when the calculator starts: put the implementing class on the class path, with a public no-argument
+ * constructor, and list its name in a file named META-INF/services/CalculatorBinaryOperator.
+ *
+ * Discovered commands are frozen into the same immutable dispatch table as the built-in ones, so a plugin command
+ * costs no more to look up than "+". A plugin cannot replace a built-in command.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public interface CalculatorBinaryOperator extends IntBinaryOperator
+{
+    /**
+     * The precedence of "+" and "-" in expressions.
+     */
+    int ADDITIVE = 1;
+
+    /**
+     * The precedence of "/" in expressions, which binds tighter than ADDITIVE.
+     */
+    int MULTIPLICATIVE = 2;
+
+    /**
+     * @return The command Token, e.g. "*". Must not be empty or contain a space.
+     */
+    String keyword();
+
+    /**
+     * Tells whether the command, like "/", is undefined for a second operand of 0. If so, the calculator reports
+     * "Attempted to divide by 0. Please try again." for such a command instead of calling applyAsInt.
+     *
+     * @return true if the second operand must not be 0. false by default.
+     */
+    default boolean rejectsZeroDivisor()
+    {
+        return false;
+    }
+
+    /**
+     * Tells how tightly the command binds in multi-operator expressions (see CalculatorExpression): ADDITIVE like "+"
+     * and "-", or MULTIPLICATIVE like "/". A "*" should be MULTIPLICATIVE, so that "2 + 3 * 4" is 14. A plugin with
+     * any other precedence is not registered.
+     *
+     * @return ADDITIVE or MULTIPLICATIVE. By default MULTIPLICATIVE if rejectsZeroDivisor() is true, and ADDITIVE
+     * otherwise.
+     */
+    default int precedence()
+    {
+        return rejectsZeroDivisor() ? MULTIPLICATIVE : ADDITIVE;
+    }
+}
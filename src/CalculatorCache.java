@@ -0,0 +1,182 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe cache of parseAndExecute results, keyed by the input line. Intended for skewed traffic where
+ * a few lines (e.g. "halve 100" or "1 + 1") make up most requests: a hit returns the stored result String without
+ * tokenizing, evaluating or formatting the line again. Results are pure functions of the line, so entries never go
+ * stale.
+ *
+ * The cache is split into independently locked segments, each a least-recently-used map with an equal share of the
+ * capacity, so concurrent lookups of different lines rarely contend. Hits, misses and evictions are counted with
+ * LongAdders. A hit is not reported to the installed CalculatorMetrics, since the line is not evaluated; only misses
+ * are.
+ *
+ * Install a cache with Calculator.setResultCache.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorCache
+{
+    /**
+     * The default number of independently locked segments.
+     */
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final Map<String, String>[] segments;
+    private final int segmentMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache with the default number of segments.
+     *
+     * @param capacity The largest number of lines the cache holds.
+     * @throws IllegalArgumentException Thrown if capacity is not positive.
+     */
+    public CalculatorCache(int capacity)
+    {
+        this(capacity, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity The largest number of lines the cache holds. Each segment holds an equal share of it, rounded up
+     * for some segments and down for the others so that the shares add up to exactly capacity.
+     * @param segments The number of independently locked segments. Rounded up to a power of two, and down to at most
+     * capacity.
+     * @throws IllegalArgumentException Thrown if capacity or segments is not positive.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CalculatorCache(int capacity, int segments)
+    {
+        if(capacity <= 0 || segments <= 0) {
+            throw new IllegalArgumentException("Capacity and segments must be positive");
+        }
+        int count = 1;
+        while(count < segments && count * 2 <= capacity) {
+            count *= 2;
+        }
+        this.segments = new Map[count];
+        this.segmentMask = count - 1;
+        for(int i = 0; i < count; i++) {
+            // count is at most capacity, so every share is at least 1:
+            int segmentCapacity = capacity / count + (i < capacity % count ? 1 : 0);
+            this.segments[i] = new LinkedHashMap<String, String>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+                {
+                    if(size() > segmentCapacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns the cached result of a line, computing and caching it on a miss. The computation runs outside the
+     * segment lock; if two threads miss on the same line at once, both compute it and the same result is stored.
+     *
+     * @param input The input line.
+     * @param compute Computes the result of a line that is not cached.
+     * @return The result of the line.
+     */
+    public String get(String input, Function<String, String> compute)
+    {
+        Map<String, String> segment = segmentFor(input);
+        String result;
+        synchronized(segment) {
+            result = segment.get(input);
+        }
+        if(result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = compute.apply(input);
+        synchronized(segment) {
+            segment.put(input, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param input An input line.
+     * @return The segment responsible for the line.
+     */
+    private Map<String, String> segmentFor(String input)
+    {
+        int h = input.hashCode();
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+    /**
+     * @return The number of lines currently cached.
+     */
+    public int size()
+    {
+        int size = 0;
+        for(Map<String, String> segment : segments) {
+            synchronized(segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes every cached line. The counters are not reset.
+     */
+    public void clear()
+    {
+        for(Map<String, String> segment : segments) {
+            synchronized(segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return The number of lookups that found a cached result.
+     */
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to compute the result.
+     */
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of lines evicted to stay within the capacity.
+     */
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The counters, for logging.
+     */
+    @Override
+    public String toString()
+    {
+        return "CalculatorCache[size=" + size() + ", hits=" + hits() + ", misses=" + misses() + ", evictions="
+                + evictions() + "]";
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.function.Function;
+
+/**
+ * Test class for the CalculatorCache class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorCacheTest {
+
+    /**
+     * Test that parseAndExecute serves repeated lines from an installed result cache:
+     */
+    @Isolated
+    public void parseAndExecuteTestResultCache() throws AssertException
+    {
+        CalculatorCache cache = new CalculatorCache(2, 1);
+        Calculator.setResultCache(cache);
+        try
+        {
+            Assert.assertEquals("The result is: 50", Calculator.parseAndExecute("halve 100"));
+            Assert.assertEquals("The result is: 50", Calculator.parseAndExecute("halve 100"));
+            Assert.assertEquals("Calculator Exception, message is: Illegal Command", Calculator.parseAndExecute("foo"));
+            Assert.assertEquals(1, (int) cache.hits());
+            Assert.assertEquals(2, (int) cache.misses());
+
+            // "halve 100" was used more recently than "foo", so "foo" is evicted first:
+            Calculator.parseAndExecute("halve 100");
+            Calculator.parseAndExecute("1 + 1");
+            Assert.assertEquals(1, (int) cache.evictions());
+            Assert.assertEquals(2, cache.size());
+            Calculator.parseAndExecute("halve 100");
+            Assert.assertEquals(3, (int) cache.hits());
+        }
+        finally
+        {
+            Calculator.setResultCache(null);
+        }
+    }
+
+    /**
+     * Test that the segments' shares of the capacity add up to exactly the capacity, even when it does not divide
+     * evenly among them:
+     */
+    public void cacheTestCapacity() throws AssertException
+    {
+        int[][] layouts = {{100, 16}, {3, 2}, {5, 16}, {1, 1}};
+        for (int[] layout : layouts)
+        {
+            CalculatorCache cache = new CalculatorCache(layout[0], layout[1]);
+            for (int i = 0; i < 10000; i++)
+            {
+                cache.get("negate " + i, Function.identity());
+            }
+            Assert.assertEquals(layout[0], cache.size());
+            Assert.assertEquals(10000 - layout[0], (int) cache.evictions());
+        }
+    }
+}
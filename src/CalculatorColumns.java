@@ -0,0 +1,296 @@
+import java.util.Arrays;
+
+/**
+ * Columnar bulk arithmetic: applies one calculator command to every element of an int[] column, with exactly the
+ * results the scalar commands give ("negate", "halve", "+", "-", "/", and any other registered command).
+ *
+ * The built-in commands run as plain counted loops over primitive arrays with no calls, branches or exceptions in
+ * their bodies, which is the shape HotSpot's C2 compiler turns into SIMD code on its own. Division has no SIMD
+ * instruction on common hardware; it runs scalar, except for a constant power-of-two divisor, which becomes a
+ * vectorizable shift. Instead of throwing an ArithmeticException, a division by 0 sets the lane's bit in a caller
+ * supplied bitmask (bit i % 64 of word i / 64) and stores 0 in the lane.
+ *
+ * Plugin commands are applied lane by lane through CalculatorOperators.apply, so a lane fails exactly as the scalar
+ * command does. A division by 0, whether the plugin declares rejectsZeroDivisor or throws an ArithmeticException, is
+ * marked in the bitmask like a built-in division. Any other failure of a lane ends the whole call with a
+ * CalculatorException, since a column has nowhere else to report it.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public final class CalculatorColumns
+{
+    /**
+     * Not instantiable.
+     */
+    private CalculatorColumns()
+    {
+    }
+
+    /**
+     * @param size The number of lanes.
+     * @return The number of words a divide by zero bitmask for that many lanes needs.
+     */
+    public static int maskLength(int size)
+    {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Applies a two-Token command to every operand: results[i] = command operands[i].
+     *
+     * @param command The command Token, e.g. "negate" or "halve".
+     * @param operands The operands.
+     * @param results The array to store the results in; may be operands itself. At least as long as operands.
+     * @throws CalculatorException If the command is not a two-Token command (message "Illegal Command"), or a plugin
+     * command fails on a lane (see failure).
+     */
+    public static void apply(String command, int[] operands, int[] results) throws CalculatorException
+    {
+        int slot = CalculatorOperators.UNARY.find(command, 0, command.length());
+        if(slot < 0) {
+        	throw new CalculatorException("Illegal Command");
+        }
+        int size = operands.length;
+        checkCapacity(size, results, null);
+        switch(CalculatorOperators.UNARY.opcode(slot))
+        {
+        case CalculatorOperators.NEGATE:
+        	negate(operands, results, size);
+        	break;
+        case CalculatorOperators.HALVE:
+        	for(int i = 0; i < size; i++) {
+        		int a = operands[i];
+        		// a / 2 rounds toward zero: add 1 to negative values before shifting.
+        		results[i] = (a + (a >>> 31)) >> 1;
+        	}
+        	break;
+        default:
+        	CalculatorResult result = new CalculatorResult();
+        	for(int i = 0; i < size; i++) {
+        		CalculatorOperators.apply(slot, operands[i], result);
+        		if(result.getStatus() != CalculatorStatus.VALUE) {
+        			throw failure(result.getStatus());
+        		}
+        		results[i] = result.getValue();
+        	}
+        	break;
+        }
+    }
+
+    /**
+     * Applies a three-Token command with a constant second operand to every operand: results[i] = left[i] command
+     * right, e.g. every element plus 5.
+     *
+     * @param left The first operands.
+     * @param command The command Token, e.g. "+", "-" or "/".
+     * @param right The second operand of every lane.
+     * @param results The array to store the results in; may be left itself. At least as long as left.
+     * @param divideByZero The bitmask to mark the lanes that divide by 0 in; the first maskLength(left.length) words
+     * are overwritten.
+     * @return The number of lanes that divided by 0 (0 or left.length for the built-in commands).
+     * @throws CalculatorException If the command is not a three-Token command (message "Illegal Command"), or a plugin
+     * command fails on a lane (see failure).
+     */
+    public static int apply(int[] left, String command, int right, int[] results, long[] divideByZero)
+            throws CalculatorException
+    {
+        int slot = CalculatorOperators.BINARY.find(command, 0, command.length());
+        if(slot < 0) {
+        	throw new CalculatorException("Illegal Command");
+        }
+        int size = left.length;
+        checkCapacity(size, results, divideByZero);
+        Arrays.fill(divideByZero, 0, maskLength(size), 0L);
+        int opcode = CalculatorOperators.BINARY.opcode(slot);
+        if(right == 0 && CalculatorOperators.isDivision(opcode)) {
+        	Arrays.fill(results, 0, size, 0);
+        	for(int i = 0; i < size; i++) {
+        		divideByZero[i >>> 6] |= 1L << i;
+        	}
+        	return size;
+        }
+        switch(opcode)
+        {
+        case CalculatorOperators.ADD:
+        	for(int i = 0; i < size; i++) {
+        		results[i] = left[i] + right;
+        	}
+        	break;
+        case CalculatorOperators.SUBTRACT:
+        	for(int i = 0; i < size; i++) {
+        		results[i] = left[i] - right;
+        	}
+        	break;
+        case CalculatorOperators.DIVIDE:
+        	divide(left, right, results, size);
+        	break;
+        default:
+        	return applyPlugin(slot, left, null, right, results, divideByZero, size);
+        }
+        return 0;
+    }
+
+    /**
+     * Applies a three-Token command lane by lane to two columns: results[i] = left[i] command right[i].
+     *
+     * @param left The first operands.
+     * @param command The command Token, e.g. "+", "-" or "/".
+     * @param right The second operands. At least as long as left.
+     * @param results The array to store the results in; may be left or right itself. At least as long as left.
+     * @param divideByZero The bitmask to mark the lanes that divide by 0 in; the first maskLength(left.length) words
+     * are overwritten.
+     * @return The number of lanes that divided by 0.
+     * @throws CalculatorException If the command is not a three-Token command (message "Illegal Command"), or a plugin
+     * command fails on a lane (see failure).
+     */
+    public static int apply(int[] left, String command, int[] right, int[] results, long[] divideByZero)
+            throws CalculatorException
+    {
+        int slot = CalculatorOperators.BINARY.find(command, 0, command.length());
+        if(slot < 0) {
+        	throw new CalculatorException("Illegal Command");
+        }
+        int size = left.length;
+        checkCapacity(size, right, divideByZero);
+        checkCapacity(size, results, divideByZero);
+        Arrays.fill(divideByZero, 0, maskLength(size), 0L);
+        int opcode = CalculatorOperators.BINARY.opcode(slot);
+        switch(opcode)
+        {
+        case CalculatorOperators.ADD:
+        	for(int i = 0; i < size; i++) {
+        		results[i] = left[i] + right[i];
+        	}
+        	return 0;
+        case CalculatorOperators.SUBTRACT:
+        	for(int i = 0; i < size; i++) {
+        		results[i] = left[i] - right[i];
+        	}
+        	return 0;
+        default:
+        	break;
+        }
+        if(opcode != CalculatorOperators.DIVIDE) {
+        	return applyPlugin(slot, left, right, 0, results, divideByZero, size);
+        }
+        int zeros = 0;
+        for(int i = 0; i < size; i++) {
+        	int b = right[i];
+        	if(b == 0) {
+        		divideByZero[i >>> 6] |= 1L << i;
+        		results[i] = 0;
+        		zeros++;
+        	}
+        	else {
+        		results[i] = left[i] / b;
+        	}
+        }
+        return zeros;
+    }
+
+    /**
+     * Applies a plugin three-Token command lane by lane through CalculatorOperators.apply. A lane it reports as
+     * DIVIDE_BY_ZERO is marked in the bitmask and stores 0; any other failure ends the call.
+     *
+     * @param slot The slot of the command in BINARY.
+     * @param left The first operands.
+     * @param right The second operands, or null to use constant in every lane.
+     * @param constant The second operand of every lane if right is null.
+     * @param results The array to store the results in.
+     * @param divideByZero The cleared bitmask to mark the lanes that divide by 0 in.
+     * @param size The number of lanes.
+     * @return The number of lanes that divided by 0.
+     * @throws CalculatorException If the command fails on a lane other than by dividing by 0 (see failure).
+     */
+    private static int applyPlugin(int slot, int[] left, int[] right, int constant, int[] results,
+            long[] divideByZero, int size) throws CalculatorException
+    {
+        CalculatorResult result = new CalculatorResult();
+        int zeros = 0;
+        for(int i = 0; i < size; i++) {
+        	CalculatorOperators.apply(slot, left[i], right == null ? constant : right[i], result);
+        	if(result.getStatus() == CalculatorStatus.VALUE) {
+        		results[i] = result.getValue();
+        	}
+        	else if(result.getStatus() == CalculatorStatus.DIVIDE_BY_ZERO) {
+        		divideByZero[i >>> 6] |= 1L << i;
+        		results[i] = 0;
+        		zeros++;
+        	}
+        	else {
+        		throw failure(result.getStatus());
+        	}
+        }
+        return zeros;
+    }
+
+    /**
+     * @param status The status CalculatorOperators.apply reported for a failed plugin lane: OVERFLOW or
+     * OPERATOR_ERROR.
+     * @return The exception that ends the call: message "Arithmetic Overflow" for OVERFLOW (e.g. from
+     * Math.multiplyExact), "Operator Failed" otherwise.
+     */
+    private static CalculatorException failure(CalculatorStatus status)
+    {
+        return new CalculatorException(status == CalculatorStatus.OVERFLOW ? "Arithmetic Overflow" : "Operator Failed");
+    }
+
+    /**
+     * Stores the negation of every operand, wrapping Integer.MIN_VALUE to itself like a * -1.
+     *
+     * @param operands The operands.
+     * @param results The array to store the results in.
+     * @param size The number of lanes.
+     */
+    private static void negate(int[] operands, int[] results, int size)
+    {
+        for(int i = 0; i < size; i++) {
+        	results[i] = -operands[i];
+        }
+    }
+
+    /**
+     * Divides every operand by a non-zero constant, rounding toward zero like the / operator. A power-of-two divisor
+     * is computed with shifts, which vectorize; any other divisor needs a scalar division per lane.
+     *
+     * @param left The dividends.
+     * @param right The divisor. Not 0.
+     * @param results The array to store the quotients in.
+     * @param size The number of lanes.
+     */
+    private static void divide(int[] left, int right, int[] results, int size)
+    {
+        if(right == 1) {
+        	System.arraycopy(left, 0, results, 0, size);
+        }
+        else if(right == -1) {
+        	negate(left, results, size);
+        }
+        else if(right > 0 && (right & (right - 1)) == 0) {
+        	int shift = Integer.numberOfTrailingZeros(right);
+        	for(int i = 0; i < size; i++) {
+        		int a = left[i];
+        		// Bias negative dividends by right - 1 so the arithmetic shift rounds toward zero.
+        		results[i] = (a + ((a >> 31) >>> (32 - shift))) >> shift;
+        	}
+        }
+        else {
+        	for(int i = 0; i < size; i++) {
+        		results[i] = left[i] / right;
+        	}
+        }
+    }
+
+    /**
+     * @param size The number of lanes.
+     * @param array An array that must hold that many lanes.
+     * @param mask A bitmask that must hold that many lanes, or null.
+     */
+    private static void checkCapacity(int size, int[] array, long[] mask)
+    {
+        if(array.length < size || (mask != null && mask.length < maskLength(size))) {
+        	throw new IllegalArgumentException("Arrays cannot hold " + size + " lanes");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test class for the CalculatorColumns class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorColumnsTest {
+
+    /**
+     * Test that columnar commands agree with the scalar commands, including edge values and halve rounding:
+     */
+    public void columnsTestMatchScalar() throws AssertException
+    {
+        Random random = new Random(17);
+        int[] operands = new int[200];
+        for (int i = 0; i < operands.length; i++)
+        {
+            operands[i] = i < 8 ? new int[] {0, 1, -1, 2, -3, -7, Integer.MAX_VALUE, Integer.MIN_VALUE}[i]
+                    : random.nextInt();
+        }
+        int[] results = new int[operands.length];
+        long[] mask = new long[CalculatorColumns.maskLength(operands.length)];
+        try
+        {
+            for (String command : new String[] {"negate", "halve"})
+            {
+                CalculatorColumns.apply(command, operands, results);
+                for (int i = 0; i < operands.length; i++)
+                {
+                    Assert.assertEquals(Calculator.calculateTwoTokens(
+                            new String[] {command, Integer.toString(operands[i])}), results[i]);
+                }
+            }
+            int[] divisors = {1, -1, 2, 8, -8, 3, 1 << 30, Integer.MIN_VALUE, Integer.MAX_VALUE};
+            for (String command : new String[] {"+", "-", "/"})
+            {
+                for (int divisor : divisors)
+                {
+                    Assert.assertEquals(0, CalculatorColumns.apply(operands, command, divisor, results, mask));
+                    for (int i = 0; i < operands.length; i++)
+                    {
+                        Assert.assertEquals(Calculator.calculateThreeTokens(new String[] {
+                                Integer.toString(operands[i]), command, Integer.toString(divisor)}), results[i]);
+                    }
+                }
+                int[] right = new int[operands.length];
+                for (int i = 0; i < right.length; i++)
+                {
+                    right[i] = i % 5 == 0 ? 0 : operands[right.length - 1 - i] >> (i % 31);
+                }
+                CalculatorColumns.apply(operands, command, right, results, mask);
+                for (int i = 0; i < operands.length; i++)
+                {
+                    if (right[i] != 0 || !command.equals("/"))
+                    {
+                        Assert.assertEquals(Calculator.calculateThreeTokens(new String[] {
+                                Integer.toString(operands[i]), command, Integer.toString(right[i])}), results[i]);
+                    }
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            Assert.fail("Legal column threw an Exception: " + e);
+        }
+    }
+
+    /**
+     * Test that columnar division marks divide by zero lanes in the bitmask instead of throwing:
+     */
+    public void columnsTestDivideByZeroMask() throws AssertException
+    {
+        int[] left = new int[130];
+        int[] right = new int[130];
+        for (int i = 0; i < left.length; i++)
+        {
+            left[i] = i + 1;
+            right[i] = i % 3 == 0 ? 0 : i;
+        }
+        int[] results = new int[130];
+        long[] mask = new long[CalculatorColumns.maskLength(130)];
+        try
+        {
+            Assert.assertEquals(44, CalculatorColumns.apply(left, "/", right, results, mask));
+            for (int i = 0; i < left.length; i++)
+            {
+                boolean zero = (mask[i >>> 6] & (1L << i)) != 0;
+                Assert.assertEquals(right[i] == 0, zero);
+                Assert.assertEquals(zero ? 0 : left[i] / right[i], results[i]);
+            }
+            Assert.assertEquals(130, CalculatorColumns.apply(left, "/", 0, results, mask));
+            Assert.assertEquals(-1L, mask[0]);
+            Assert.assertEquals(3L, mask[2]);
+            Assert.assertEquals(0, CalculatorColumns.apply(left, "+", 0, results, mask));
+            Assert.assertEquals(0L, mask[0]);
+        }
+        catch (CalculatorException e)
+        {
+            Assert.fail("Legal column threw an Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Test that plugin commands fail in columns as they do in parseAndExecute: a plugin that throws on a zero divisor
+     * marks the lane in the bitmask, and overflow or any other exception ends the call with a CalculatorException:
+     */
+    @Isolated
+    public void columnsTestPluginFailures() throws Exception
+    {
+        CalculatorOperatorsTest.BinaryPlugins.run(loader -> {
+            Class<?> columns = loader.loadClass("CalculatorColumns");
+            Method constant = columns.getMethod("apply", int[].class, String.class, int.class, int[].class,
+                    long[].class);
+            Method column = columns.getMethod("apply", int[].class, String.class, int[].class, int[].class,
+                    long[].class);
+            int[] left = {7, 8, 9, 10};
+            int[] results = new int[4];
+            long[] mask = new long[1];
+
+            Assert.assertEquals(Integer.valueOf(2), column.invoke(null, left, "%", new int[] {3, 0, 2, 0}, results,
+                    mask));
+            Assert.assertEquals(0b1010L, mask[0]);
+            Assert.assertEquals("[1, 0, 1, 0]", Arrays.toString(results));
+            Assert.assertEquals(Integer.valueOf(4), constant.invoke(null, left, "%", 0, results, mask));
+            Assert.assertEquals(0b1111L, mask[0]);
+            Assert.assertEquals("[0, 0, 0, 0]", Arrays.toString(results));
+            Assert.assertEquals(Integer.valueOf(0), constant.invoke(null, left, "*", 6, results, mask));
+            Assert.assertEquals("[42, 48, 54, 60]", Arrays.toString(results));
+
+            Object[][] failures = {{"Arithmetic Overflow", constant, "*", Integer.MAX_VALUE},
+                    {"Arithmetic Overflow", column, "*", new int[] {1, 1, Integer.MAX_VALUE, 1}},
+                    {"Operator Failed", constant, "!", 1}, {"Operator Failed", column, "!", new int[] {1, 2, 3, 4}}};
+            for (Object[] failure : failures)
+            {
+                try
+                {
+                    ((Method) failure[1]).invoke(null, left, failure[2], failure[3], results, mask);
+                    Assert.fail(failure[2] + " did not fail");
+                }
+                catch (InvocationTargetException e)
+                {
+                    Assert.assertEquals("CalculatorException", e.getCause().getClass().getName());
+                    Assert.assertEquals(failure[0], e.getCause().getMessage());
+                }
+            }
+        });
+    }
+}
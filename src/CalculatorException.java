@@ -23,8 +23,9 @@ public class CalculatorException extends Exception
     /**
      * Sets the message and type. Uses super constructor to set the message.
      *
-     * @param message The message of the Calculator Exception. Should be "Illegal Token Length"
-     * or "Illegal Command".
+     * @param message The message of the Calculator Exception. Should be "Illegal Token Length",
+     * "Illegal Command", or "Illegal Expression" (for a malformed CalculatorExpression), or, from CalculatorColumns,
+     * "Arithmetic Overflow" or "Operator Failed" (for a plugin command that fails on a lane).
      */
     public CalculatorException(String message)
     {
@@ -0,0 +1,337 @@
+import java.util.Arrays;
+
+/**
+ * A compiled infix calculator expression of any length, such as "1 + 2 - 3 / 4" or "negate (halve 10 + 1)". An
+ * expression is compiled once into a compact postfix program and can then be evaluated any number of times without
+ * being parsed again.
+ *
+ * Grammar, lowest precedence first:
+ *  expression := term (additive-operator term)*
+ *  term := unary (division-operator unary)*
+ *  unary := unary-command unary | primary
+ *  primary := number | "(" expression ")"
+ *
+ * The unary commands ("negate", "halve") and binary operators ("+", "-", "/") are those registered in
+ * CalculatorOperators. Operators of MULTIPLICATIVE precedence ("/", and plugin commands that declare it, such as a
+ * "*") bind tighter than ADDITIVE ones ("+", "-"), and binary operators of equal precedence associate to the left, so
+ * "8 - 2 - 1" is 5 and "negate 1 + 2" is 1. As in single commands, numbers, commands and operators are separated by
+ * spaces; parentheses need no spaces around them. Arithmetic is int arithmetic, exactly as for single commands.
+ * Parentheses and unary commands can be nested at most MAX_NESTING deep; a deeper expression is malformed, so that the
+ * recursive compiler cannot run out of stack.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorExpression
+{
+    /**
+     * Instruction kinds, stored in the low two bits of an instruction. The remaining bits hold the operand: an index
+     * into the constants for PUSH, or an OperatorTable slot for UNARY and BINARY.
+     */
+    private static final int PUSH = 0, UNARY = 1, BINARY = 2;
+    private static final int KIND_BITS = 2;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    /**
+     * The deepest nesting of parentheses and unary commands an expression may have.
+     */
+    public static final int MAX_NESTING = 256;
+
+    /**
+     * The source text, for toString.
+     */
+    private final String source;
+
+    /**
+     * The postfix program.
+     */
+    private final int[] code;
+
+    /**
+     * The numbers pushed by PUSH instructions.
+     */
+    private final int[] constants;
+
+    /**
+     * The largest number of values on the stack while the program runs.
+     */
+    private final int maxDepth;
+
+    /**
+     * @param source The source text.
+     * @param code The postfix program.
+     * @param constants The numbers pushed by PUSH instructions.
+     * @param maxDepth The largest number of values on the stack while the program runs.
+     */
+    private CalculatorExpression(String source, int[] code, int[] constants, int maxDepth)
+    {
+        this.source = source;
+        this.code = code;
+        this.constants = constants;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Compiles an infix expression.
+     *
+     * @param source The expression, e.g. "(1 + 2) / negate 3".
+     * @return The compiled expression.
+     * @throws NumberFormatException Thrown if a number in the expression is not convertible to an int.
+     * @throws CalculatorException Thrown with message "Illegal Command" if the expression uses a word that is not a
+     * command or operator, or with message "Illegal Expression" if it is malformed (e.g. a missing operand or an
+     * unbalanced parenthesis).
+     */
+    public static CalculatorExpression compile(CharSequence source) throws NumberFormatException, CalculatorException
+    {
+        return new Compiler(source).compile();
+    }
+
+    /**
+     * Evaluates the expression and stores its outcome in the given result object: its value, DIVIDE_BY_ZERO if a
+     * division by zero occurs, or the status of a failing plugin command (see CalculatorOperators.apply).
+     *
+     * @param result The result object to overwrite with the outcome.
+     */
+    public void evaluate(CalculatorResult result)
+    {
+        evaluate(result, new int[maxDepth]);
+    }
+
+    /**
+     * Evaluates the expression using the given stack, so that repeated evaluations allocate nothing. See
+     * evaluate(CalculatorResult).
+     *
+     * @param result The result object to overwrite with the outcome.
+     * @param stack Scratch space of at least stackSize() ints.
+     */
+    public void evaluate(CalculatorResult result, int[] stack)
+    {
+        int top = -1;
+        for(int instruction : code) {
+        	int operand = instruction >>> KIND_BITS;
+        	switch(instruction & KIND_MASK)
+        	{
+        	case PUSH:
+        		stack[++top] = constants[operand];
+        		break;
+        	case UNARY:
+        		CalculatorOperators.apply(operand, stack[top], result);
+        		if(result.getStatus() != CalculatorStatus.VALUE) {
+        			return;
+        		}
+        		stack[top] = result.getValue();
+        		break;
+        	default:
+        		int b = stack[top--];
+        		CalculatorOperators.apply(operand, stack[top], b, result);
+        		if(result.getStatus() != CalculatorStatus.VALUE) {
+        			return;
+        		}
+        		stack[top] = result.getValue();
+        		break;
+        	}
+        }
+        result.setValue(stack[0]);
+    }
+
+    /**
+     * @return The number of ints of scratch space evaluate(CalculatorResult, int[]) needs.
+     */
+    public int stackSize()
+    {
+        return maxDepth;
+    }
+
+    /**
+     * @return The source text of the expression.
+     */
+    @Override
+    public String toString()
+    {
+        return source;
+    }
+
+    /**
+     * Recursive-descent compiler from infix source text to a postfix program. Tracks the stack depth of the program as
+     * it emits instructions.
+     */
+    private static class Compiler
+    {
+        private final CharSequence source;
+        private int position;
+        private int[] code = new int[16];
+        private int codeLength;
+        private int[] constants = new int[8];
+        private int constantCount;
+        private int depth;
+        private int maxDepth;
+        private int nesting;
+
+        /**
+         * The current word: its bounds in the source, or tokenStart == tokenEnd at the end of the source.
+         */
+        private int tokenStart, tokenEnd;
+
+        Compiler(CharSequence source)
+        {
+            this.source = source;
+            next();
+        }
+
+        CalculatorExpression compile() throws CalculatorException
+        {
+            expression();
+            if(!atEnd()) {
+            	if(isChar(')')) {
+            		throw new CalculatorException("Illegal Expression");
+            	}
+            	throw new CalculatorException("Illegal Command"); // A word where an operator belongs.
+            }
+            return new CalculatorExpression(source.toString(), Arrays.copyOf(code, codeLength),
+            		Arrays.copyOf(constants, constantCount), maxDepth);
+        }
+
+        private void expression() throws CalculatorException
+        {
+            term();
+            int slot;
+            while((slot = binaryOperator(CalculatorBinaryOperator.ADDITIVE)) >= 0) {
+            	next();
+            	term();
+            	emit(BINARY, slot, -1);
+            }
+        }
+
+        private void term() throws CalculatorException
+        {
+            unary();
+            int slot;
+            while((slot = binaryOperator(CalculatorBinaryOperator.MULTIPLICATIVE)) >= 0) {
+            	next();
+            	unary();
+            	emit(BINARY, slot, -1);
+            }
+        }
+
+        private void unary() throws CalculatorException
+        {
+            if(atEnd() || isChar(')')) {
+            	throw new CalculatorException("Illegal Expression"); // Missing operand.
+            }
+            if(isChar('(')) {
+            	nest();
+            	next();
+            	expression();
+            	if(!isChar(')')) {
+            		throw new CalculatorException("Illegal Expression");
+            	}
+            	next();
+            	nesting--;
+            	return;
+            }
+
+            int slot = CalculatorOperators.UNARY.find(source, tokenStart, tokenEnd);
+            if(slot >= 0) {
+            	nest();
+            	next();
+            	unary();
+            	emit(UNARY, slot, 0);
+            	nesting--;
+            	return;
+            }
+
+            long value = OperandParser.parseInt(source, tokenStart, tokenEnd);
+            if(value == CalculatorTokenizer.NOT_AN_INT) {
+            	char first = source.charAt(tokenStart);
+            	if(Character.isDigit(first) || first == '-' || first == '+') {
+            		throw new NumberFormatException("For input string: \"" + source.subSequence(tokenStart, tokenEnd)
+            				+ "\"");
+            	}
+            	throw new CalculatorException("Illegal Command");
+            }
+            if(constantCount == constants.length) {
+            	constants = Arrays.copyOf(constants, constantCount * 2);
+            }
+            constants[constantCount] = (int) value;
+            emit(PUSH, constantCount++, 1);
+            next();
+        }
+
+        /**
+         * Enters a parenthesis or unary command.
+         *
+         * @throws CalculatorException Thrown with message "Illegal Expression" if that nests deeper than MAX_NESTING.
+         */
+        private void nest() throws CalculatorException
+        {
+            if(++nesting > MAX_NESTING) {
+            	throw new CalculatorException("Illegal Expression");
+            }
+        }
+
+        /**
+         * @param precedence The precedence of the operators being parsed.
+         * @return The slot of the current word if it is a binary operator of the given precedence, or -1.
+         */
+        private int binaryOperator(int precedence)
+        {
+            if(atEnd() || isChar(')')) {
+            	return -1;
+            }
+            int slot = CalculatorOperators.BINARY.find(source, tokenStart, tokenEnd);
+            if(slot < 0) {
+            	return -1;
+            }
+            return CalculatorOperators.precedence(slot) == precedence ? slot : -1;
+        }
+
+        /**
+         * Appends an instruction.
+         *
+         * @param kind The instruction kind.
+         * @param operand The instruction operand.
+         * @param stackEffect The change in stack depth when the instruction runs.
+         */
+        private void emit(int kind, int operand, int stackEffect)
+        {
+            if(codeLength == code.length) {
+            	code = Arrays.copyOf(code, codeLength * 2);
+            }
+            code[codeLength++] = operand << KIND_BITS | kind;
+            depth += stackEffect;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        /**
+         * Advances to the next word: a parenthesis, or a run of characters up to a space or parenthesis.
+         */
+        private void next()
+        {
+            int i = tokenEnd;
+            while(i < source.length() && source.charAt(i) == ' ') {
+            	i++;
+            }
+            tokenStart = i;
+            if(i < source.length() && (source.charAt(i) == '(' || source.charAt(i) == ')')) {
+            	i++;
+            }
+            else {
+            	while(i < source.length() && source.charAt(i) != ' ' && source.charAt(i) != '('
+            			&& source.charAt(i) != ')') {
+            		i++;
+            	}
+            }
+            tokenEnd = i;
+        }
+
+        private boolean atEnd()
+        {
+            return tokenStart == tokenEnd;
+        }
+
+        private boolean isChar(char c)
+        {
+            return tokenEnd - tokenStart == 1 && source.charAt(tokenStart) == c;
+        }
+    }
+}
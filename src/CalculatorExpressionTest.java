@@ -0,0 +1,98 @@
+/**
+ * Test class for the CalculatorExpression class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorExpressionTest {
+
+    /**
+     * Test compiling and evaluating multi-operator expressions:
+     */
+    public void expressionTestValid() throws AssertException
+    {
+        String[] inputs = {"1 + 2 - 3 / 4", "8 - 2 - 1", "100 / 5 / 2", "negate 1 + 2", "negate (1 + 2)",
+                "(1 + 2) / 3", "halve halve 17", "((7))", "2 - -3", "negate(4) - 1", "5"};
+        int[] expected = {3, 5, 10, 1, -3, 1, 4, 7, 5, -5, 5};
+        CalculatorResult result = new CalculatorResult();
+        for (int i = 0; i < inputs.length; i++)
+        {
+            try
+            {
+                CalculatorExpression expression = CalculatorExpression.compile(inputs[i]);
+                expression.evaluate(result);
+                Assert.assertEquals(expected[i], result.getValue());
+                // Compiled expressions can be evaluated again:
+                expression.evaluate(result, new int[expression.stackSize()]);
+                Assert.assertEquals(expected[i], result.getValue());
+            }
+            catch (Exception e)
+            {
+                Assert.fail("Legal expression " + inputs[i] + " threw an Exception: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Test that invalid expressions are reported with the right status:
+     */
+    public void expressionTestInvalid() throws AssertException
+    {
+        String[] inputs = {"1 +", "(1 + 2", "1 + 2)", "", "()", "1 2", "1 * 2", "foo 1", "1 + 2x", "1 / (2 - 2)"};
+        CalculatorStatus[] expected = {CalculatorStatus.ILLEGAL_EXPRESSION, CalculatorStatus.ILLEGAL_EXPRESSION,
+                CalculatorStatus.ILLEGAL_EXPRESSION, CalculatorStatus.ILLEGAL_EXPRESSION,
+                CalculatorStatus.ILLEGAL_EXPRESSION, CalculatorStatus.ILLEGAL_COMMAND, CalculatorStatus.ILLEGAL_COMMAND,
+                CalculatorStatus.ILLEGAL_COMMAND, CalculatorStatus.NUMBER_FORMAT, CalculatorStatus.DIVIDE_BY_ZERO};
+        CalculatorResult result = new CalculatorResult();
+        for (int i = 0; i < inputs.length; i++)
+        {
+            Calculator.evaluateExpression(inputs[i], result);
+            Assert.assertEquals(expected[i], result.getStatus());
+        }
+    }
+
+    /**
+     * Test that nesting up to MAX_NESTING deep is evaluated, and that deeper nesting is an illegal expression rather
+     * than a StackOverflowError:
+     */
+    public void expressionTestDeepNesting() throws AssertException
+    {
+        int[] depths = {CalculatorExpression.MAX_NESTING, CalculatorExpression.MAX_NESTING + 1, 100000};
+        CalculatorResult result = new CalculatorResult();
+        for (int depth : depths)
+        {
+            StringBuilder parentheses = new StringBuilder();
+            StringBuilder negations = new StringBuilder();
+            for (int i = 0; i < depth; i++)
+            {
+                parentheses.append('(');
+                negations.append("negate ");
+            }
+            parentheses.append('7');
+            negations.append('7');
+            for (int i = 0; i < depth; i++)
+            {
+                parentheses.append(')');
+            }
+
+            Calculator.evaluateExpression(parentheses, result);
+            if (depth <= CalculatorExpression.MAX_NESTING)
+            {
+                Assert.assertEquals(7, result.getValue());
+            }
+            else
+            {
+                Assert.assertEquals(CalculatorStatus.ILLEGAL_EXPRESSION, result.getStatus());
+            }
+            Calculator.evaluateExpression(negations, result);
+            if (depth <= CalculatorExpression.MAX_NESTING)
+            {
+                Assert.assertEquals(depth % 2 == 0 ? 7 : -7, result.getValue());
+            }
+            else
+            {
+                Assert.assertEquals(CalculatorStatus.ILLEGAL_EXPRESSION, result.getStatus());
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats evaluation outcomes as the lines parseAndExecute reports, without String.format. A value is written as the
+ * constant prefix "The result is: " followed by its decimal digits; every other outcome is its status message, which
+ * is a preallocated constant. The output is byte-for-byte what String.format("The result is: %d", value) and the
+ * exception messages have always produced.
+ *
+ * Outcomes can be formatted as a String, appended to a reusable StringBuilder, or written as ASCII bytes into a byte[]
+ * or ByteBuffer. The StringBuilder and byte variants allocate nothing.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public final class CalculatorFormatter
+{
+    /**
+     * The text before the value of a successful command.
+     */
+    public static final String RESULT_PREFIX = "The result is: ";
+
+    /**
+     * The longest formatted line: the prefix followed by the longest long ("-9223372036854775808"), or any message.
+     */
+    public static final int MAX_LENGTH;
+
+    /**
+     * The bytes written after each line by writeLine, as System.out.println does.
+     */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The longest line writeLine writes: MAX_LENGTH and the line separator.
+     */
+    public static final int MAX_LINE_LENGTH;
+
+    private static final byte[] RESULT_PREFIX_BYTES = RESULT_PREFIX.getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The ASCII bytes of each status message, indexed by status code. null for VALUE.
+     */
+    private static final byte[][] MESSAGE_BYTES = new byte[CalculatorStatus.values().length][];
+
+    /**
+     * Scratch space for the digits of a value written to a direct ByteBuffer, one per thread.
+     */
+    private static final ThreadLocal<byte[]> DIGITS =
+            ThreadLocal.withInitial(() -> new byte[Long.toString(Long.MIN_VALUE).length()]);
+
+    static
+    {
+        int max = RESULT_PREFIX.length() + Long.toString(Long.MIN_VALUE).length();
+        for(CalculatorStatus status : CalculatorStatus.values()) {
+        	if(status.getMessage() != null) {
+        		MESSAGE_BYTES[status.code()] = status.getMessage().getBytes(StandardCharsets.US_ASCII);
+        		max = Math.max(max, status.getMessage().length());
+        	}
+        }
+        MAX_LENGTH = max;
+        MAX_LINE_LENGTH = max + LINE_SEPARATOR.length;
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private CalculatorFormatter()
+    {
+    }
+
+    /**
+     * @param result An evaluation outcome.
+     * @return The line parseAndExecute reports for it. For any outcome but VALUE, this is the status message itself.
+     */
+    public static String format(CalculatorResult result)
+    {
+        if(result.getStatus() == CalculatorStatus.VALUE) {
+        	return RESULT_PREFIX + result.getLongValue();
+        }
+        return result.getStatus().getMessage();
+    }
+
+    /**
+     * Appends the line parseAndExecute reports for an outcome.
+     *
+     * @param result An evaluation outcome.
+     * @param out The builder to append to.
+     * @return out.
+     */
+    public static StringBuilder append(CalculatorResult result, StringBuilder out)
+    {
+        if(result.getStatus() == CalculatorStatus.VALUE) {
+        	return out.append(RESULT_PREFIX).append(result.getLongValue());
+        }
+        return out.append(result.getStatus().getMessage());
+    }
+
+    /**
+     * Writes the line parseAndExecute reports for an outcome as ASCII bytes.
+     *
+     * @param result An evaluation outcome.
+     * @param out The array to write to. Must have at least MAX_LENGTH bytes from offset.
+     * @param offset The index to start writing at.
+     * @return The index just past the last byte written.
+     */
+    public static int write(CalculatorResult result, byte[] out, int offset)
+    {
+        if(result.getStatus() != CalculatorStatus.VALUE) {
+        	byte[] message = MESSAGE_BYTES[result.getStatus().code()];
+        	System.arraycopy(message, 0, out, offset, message.length);
+        	return offset + message.length;
+        }
+        System.arraycopy(RESULT_PREFIX_BYTES, 0, out, offset, RESULT_PREFIX_BYTES.length);
+        return writeDigits(result.getLongValue(), out, offset + RESULT_PREFIX_BYTES.length);
+    }
+
+    /**
+     * Writes the line parseAndExecute reports for an outcome as ASCII bytes at the buffer's position, and advances the
+     * position past them.
+     *
+     * @param result An evaluation outcome.
+     * @param out The buffer to write to. Must have at least MAX_LENGTH bytes remaining.
+     */
+    public static void write(CalculatorResult result, ByteBuffer out)
+    {
+        if(result.getStatus() != CalculatorStatus.VALUE) {
+        	out.put(MESSAGE_BYTES[result.getStatus().code()]);
+        	return;
+        }
+        out.put(RESULT_PREFIX_BYTES);
+        if(out.hasArray()) {
+        	int end = writeDigits(result.getLongValue(), out.array(), out.arrayOffset() + out.position());
+        	out.position(end - out.arrayOffset());
+        	return;
+        }
+        // A direct buffer has no array to write into, so the digits go through a per-thread scratch array:
+        byte[] digits = DIGITS.get();
+        out.put(digits, 0, writeDigits(result.getLongValue(), digits, 0));
+    }
+
+    /**
+     * Writes the line parseAndExecute reports for an outcome as ASCII bytes, followed by the platform line separator,
+     * as System.out.println prints it.
+     *
+     * @param result An evaluation outcome.
+     * @param out The array to write to. Must have at least MAX_LINE_LENGTH bytes from offset.
+     * @param offset The index to start writing at.
+     * @return The index just past the last byte written.
+     */
+    public static int writeLine(CalculatorResult result, byte[] out, int offset)
+    {
+        int end = write(result, out, offset);
+        System.arraycopy(LINE_SEPARATOR, 0, out, end, LINE_SEPARATOR.length);
+        return end + LINE_SEPARATOR.length;
+    }
+
+    /**
+     * Writes the line parseAndExecute reports for an outcome as ASCII bytes at the buffer's position, followed by the
+     * platform line separator, and advances the position past them.
+     *
+     * @param result An evaluation outcome.
+     * @param out The buffer to write to. Must have at least MAX_LINE_LENGTH bytes remaining.
+     */
+    public static void writeLine(CalculatorResult result, ByteBuffer out)
+    {
+        write(result, out);
+        out.put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes the decimal digits of a value as ASCII bytes.
+     *
+     * @param value The value.
+     * @param out The array to write to.
+     * @param offset The index to start writing at.
+     * @return The index just past the last byte written.
+     */
+    static int writeDigits(long value, byte[] out, int offset)
+    {
+        int end = offset + digitCount(value);
+        // Write the digits backwards from the end, working on the negative magnitude so Long.MIN_VALUE fits:
+        long negative = value < 0 ? value : -value;
+        int i = end - 1;
+        do {
+        	out[i--] = (byte) ('0' - (negative % 10));
+        	negative /= 10;
+        } while(negative != 0);
+        if(value < 0) {
+        	out[offset] = '-';
+        }
+        return end;
+    }
+
+    /**
+     * @param value A value.
+     * @return The number of characters in its decimal form, including a minus sign.
+     */
+    static int digitCount(long value)
+    {
+        int count = value < 0 ? 2 : 1;
+        long negative = value < 0 ? value : -value;
+        while(negative <= -10) {
+        	negative /= 10;
+        	count++;
+        }
+        return count;
+    }
+}
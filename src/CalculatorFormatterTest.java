@@ -0,0 +1,62 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for the CalculatorFormatter class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorFormatterTest {
+
+    /**
+     * Test that the formatter produces exactly what String.format did, as a String and as bytes in arrays and in heap
+     * and direct buffers:
+     */
+    public void formatterTestMatchesStringFormat() throws AssertException
+    {
+        long[] values = {0, 7, -7, 10, -10, 99, 100, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE,
+                Long.MIN_VALUE};
+        CalculatorResult result = new CalculatorResult();
+        byte[] bytes = new byte[CalculatorFormatter.MAX_LENGTH + 2];
+        ByteBuffer buffer = ByteBuffer.allocate(CalculatorFormatter.MAX_LENGTH + 2);
+        ByteBuffer slice = ByteBuffer.allocate(CalculatorFormatter.MAX_LENGTH + 5).position(3).slice();
+        ByteBuffer direct = ByteBuffer.allocateDirect(CalculatorFormatter.MAX_LENGTH + 2);
+        for (long value : values)
+        {
+            result.setValue(value);
+            String expected = String.format("The result is: %d", value);
+            Assert.assertEquals(expected, CalculatorFormatter.format(result));
+            Assert.assertEquals(expected, CalculatorFormatter.append(result, new StringBuilder()).toString());
+
+            int end = CalculatorFormatter.write(result, bytes, 1);
+            Assert.assertEquals(expected, new String(bytes, 1, end - 1, StandardCharsets.US_ASCII));
+
+            buffer.clear().position(1);
+            CalculatorFormatter.write(result, buffer);
+            Assert.assertEquals(expected, new String(buffer.array(), 1, buffer.position() - 1,
+                    StandardCharsets.US_ASCII));
+
+            // A heap buffer that does not start at the start of its array, and a direct buffer:
+            for (ByteBuffer other : new ByteBuffer[] {slice, direct})
+            {
+                other.clear().position(1);
+                CalculatorFormatter.write(result, other);
+                byte[] written = new byte[other.position() - 1];
+                other.flip().position(1);
+                other.get(written);
+                Assert.assertEquals(expected, new String(written, StandardCharsets.US_ASCII));
+            }
+        }
+        for (CalculatorStatus status : CalculatorStatus.values())
+        {
+            if (status != CalculatorStatus.VALUE)
+            {
+                result.setStatus(status);
+                Assert.assertTrue(status.getMessage() == CalculatorFormatter.format(result));
+                int end = CalculatorFormatter.write(result, bytes, 0);
+                Assert.assertEquals(status.getMessage(), new String(bytes, 0, end, StandardCharsets.US_ASCII));
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Loopback load generator for CalculatorServer. Opens many concurrent sessions, each of which sends pipelined windows
+ * of command lines and reads back the answers, then reports the throughput in requests per second and the latency
+ * distribution of individual requests (from sending the window that held the request to receiving its answer).
+ *
+ * Every answer is checked against Calculator.parseAndExecute, so the load generator also catches protocol errors.
+ *
+ * Usage: java CalculatorLoadGenerator [sessions] [requests per session] [pipeline window] [port]
+ * Without a port, a server is started in this JVM on a free port.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorLoadGenerator
+{
+    private static final String[] COMMANDS = {"1 + 1", "halve 100", "negate 42", "1000 / 7", "12 - 30", "foo 1",
+            "5 / 0", "halve x"};
+
+    /**
+     * @param args Optional sessions, requests per session, pipeline window and server port.
+     * @throws Exception If the server or a session fails.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        CalculatorServer server = null;
+        int port;
+        if(args.length > 3) {
+        	port = Integer.parseInt(args[3]);
+        }
+        else {
+        	server = new CalculatorServer(0);
+        	port = server.getPort();
+        	Thread serverThread = new Thread(server, "calculator-server");
+        	serverThread.setDaemon(true);
+        	serverThread.start();
+        }
+
+        long[][] latencies = new long[sessions][];
+        Throwable[] failures = new Throwable[sessions];
+        CountDownLatch done = new CountDownLatch(sessions);
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < sessions; i++) {
+        	int session = i;
+        	Thread thread = new Thread(() -> {
+        		try {
+        			latencies[session] = runSession(port, requests, window);
+        		}
+        		catch(Throwable t) {
+        			failures[session] = t;
+        		}
+        		finally {
+        			done.countDown();
+        		}
+        	}, "session-" + i);
+        	threads.add(thread);
+        }
+
+        long start = System.nanoTime();
+        for(Thread thread : threads) {
+        	thread.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        if(server != null) {
+        	server.close();
+        }
+
+        for(Throwable failure : failures) {
+        	if(failure != null) {
+        		throw new IllegalStateException("A session failed", failure);
+        	}
+        }
+
+        long[] all = new long[sessions * requests];
+        for(int i = 0; i < sessions; i++) {
+        	System.arraycopy(latencies[i], 0, all, i * requests, requests);
+        }
+        Arrays.sort(all);
+        System.out.println(String.format("%d sessions x %d requests, pipeline window %d", sessions, requests, window));
+        System.out.println(String.format("Throughput: %.0f requests/sec", all.length / (elapsed / 1e9)));
+        System.out.println(String.format("Latency (us): p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f",
+        		percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 0.999),
+        		all[all.length - 1] / 1e3));
+    }
+
+    /**
+     * Runs one session: sends the requests in pipelined windows, reads and checks every answer, then sends "quit".
+     *
+     * @param port The server port.
+     * @param requests The number of requests to send.
+     * @param window The number of requests sent before waiting for their answers.
+     * @return The latency of each request, in nanoseconds.
+     * @throws IOException If the connection fails or an answer is wrong.
+     */
+    private static long[] runSession(int port, int requests, int window) throws IOException
+    {
+        byte[][] commands = new byte[COMMANDS.length][];
+        String[] expected = new String[COMMANDS.length];
+        for(int i = 0; i < COMMANDS.length; i++) {
+        	commands[i] = (COMMANDS[i] + "\n").getBytes(StandardCharsets.US_ASCII);
+        	expected[i] = Calculator.parseAndExecute(COMMANDS[i]);
+        }
+
+        long[] latencies = new long[requests];
+        try(SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+        	channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        	ByteBuffer out = ByteBuffer.allocate(window * 16);
+        	ByteBuffer in = ByteBuffer.allocate(window * CalculatorFormatter.MAX_LENGTH * 2);
+        	byte[] line = new byte[CalculatorFormatter.MAX_LENGTH + 1];
+        	int sent = 0;
+        	while(sent < requests) {
+        		int count = Math.min(window, requests - sent);
+        		out.clear();
+        		for(int i = 0; i < count; i++) {
+        			out.put(commands[(sent + i) % commands.length]);
+        		}
+        		out.flip();
+        		long start = System.nanoTime();
+        		while(out.hasRemaining()) {
+        			channel.write(out);
+        		}
+
+        		// Read the answers of the window, timing each as it arrives:
+        		int answered = 0;
+        		int length = 0;
+        		while(answered < count) {
+        			in.clear();
+        			if(channel.read(in) < 0) {
+        				throw new IOException("Server closed the session early");
+        			}
+        			long now = System.nanoTime();
+        			in.flip();
+        			while(in.hasRemaining()) {
+        				byte b = in.get();
+        				if(b != '\n') {
+        					line[length++] = b;
+        					continue;
+        				}
+        				String answer = new String(line, 0, length, StandardCharsets.US_ASCII);
+        				String wanted = expected[(sent + answered) % expected.length];
+        				if(!answer.equals(wanted)) {
+        					throw new IOException("Expected \"" + wanted + "\" but got \"" + answer + "\"");
+        				}
+        				latencies[sent + answered++] = now - start;
+        				length = 0;
+        			}
+        		}
+        		sent += count;
+        	}
+        	channel.write(ByteBuffer.wrap("quit\n".getBytes(StandardCharsets.US_ASCII)));
+        	if(channel.read(ByteBuffer.allocate(1)) >= 0) {
+        		throw new IOException("Server did not close the session on quit");
+        	}
+        }
+        return latencies;
+    }
+
+    /**
+     * @param sorted Sorted latencies in nanoseconds.
+     * @param fraction The percentile, from 0 to 1.
+     * @return The latency at that percentile, in microseconds.
+     */
+    private static double percentile(long[] sorted, double fraction)
+    {
+        int index = (int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)));
+        return sorted[index] / 1e3;
+    }
+}
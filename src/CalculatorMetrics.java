@@ -0,0 +1,307 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Low-overhead counters and a latency histogram for Calculator evaluations. Counts how often each command is evaluated
+ * and how often each outcome (each error kind in particular) occurs, and samples evaluation latency into a log-linear
+ * histogram in the style of HdrHistogram.
+ *
+ * Counters are striped LongAdders, so threads evaluating concurrently do not contend on them. Reading the clock costs
+ * about as much as evaluating a short command, so only one evaluation in LATENCY_SAMPLE_RATE is timed; the histogram
+ * is an unbiased sample of the latency distribution.
+ *
+ * Install with Calculator.setMetrics, which meters evaluate and execute. Read the numbers with report(), or over JMX
+ * after calling register().
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorMetrics implements CalculatorMetricsMXBean
+{
+    /**
+     * One evaluation in this many is timed.
+     */
+    public static final int LATENCY_SAMPLE_RATE = 64;
+
+    /**
+     * The JMX name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "Calculator:type=Metrics";
+
+    /**
+     * Histogram layout: values below LINEAR_LIMIT get a bucket each; above it, every power of two is split into
+     * SUB_BUCKETS buckets, for a relative error of at most 1 / SUB_BUCKETS.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+    /**
+     * Command ids: NONE and QUIT, then one per slot of the unary table, then one per slot of the binary table.
+     */
+    private static final int NONE = 0, QUIT = 1, UNARY_BASE = 2;
+    private static final int BINARY_BASE = UNARY_BASE + CalculatorOperators.UNARY.capacity();
+    private static final int COMMANDS = BINARY_BASE + CalculatorOperators.BINARY.capacity();
+
+    private final LongAdder[] commands = adders(COMMANDS);
+    private final LongAdder[] statuses = adders(CalculatorStatus.values().length);
+    private final LongAdder[] latency = adders(BUCKETS);
+
+    /**
+     * @param count The number of adders.
+     * @return An array of new adders.
+     */
+    private static LongAdder[] adders(int count)
+    {
+        LongAdder[] adders = new LongAdder[count];
+        for(int i = 0; i < count; i++) {
+        	adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Decides whether the evaluation about to start is timed.
+     *
+     * @return System.nanoTime() if the evaluation is sampled, or 0 if it is not.
+     */
+    long startTimer()
+    {
+        return ThreadLocalRandom.current().nextInt(LATENCY_SAMPLE_RATE) == 0 ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records an evaluation. Calculator has already looked up its command to evaluate it, and passes on the slot, so
+     * that metering does not look it up again.
+     *
+     * @param count The number of Tokens of the evaluated input.
+     * @param slot The slot of its command in UNARY if it had two Tokens, in BINARY if it had three, or -1.
+     * @param status The outcome.
+     * @param start The value returned by startTimer.
+     */
+    void record(int count, int slot, CalculatorStatus status, long start)
+    {
+        int command = NONE;
+        if(status == CalculatorStatus.QUIT) {
+        	command = QUIT;
+        }
+        else if(count == 2) {
+        	command = commandId(slot, UNARY_BASE);
+        }
+        else if(count == 3) {
+        	command = commandId(slot, BINARY_BASE);
+        }
+        record(command, status, start);
+    }
+
+    /**
+     * @param slot An operator table slot, or -1.
+     * @param base The first command id of the table.
+     * @return The command id of the slot, or NONE.
+     */
+    private static int commandId(int slot, int base)
+    {
+        return slot < 0 ? NONE : base + slot;
+    }
+
+    /**
+     * Counts an evaluation and, if it was sampled, records its latency.
+     *
+     * @param command The command id.
+     * @param status The outcome.
+     * @param start The value returned by startTimer.
+     */
+    private void record(int command, CalculatorStatus status, long start)
+    {
+        if(start != 0) {
+        	latency[bucket(Math.max(0, System.nanoTime() - start))].increment();
+        }
+        commands[command].increment();
+        statuses[status.ordinal()].increment();
+    }
+
+    /**
+     * @param value A latency in nanoseconds.
+     * @return The histogram bucket of the value.
+     */
+    static int bucket(long value)
+    {
+        if(value < LINEAR_LIMIT) {
+        	return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param bucket A histogram bucket.
+     * @return The largest value in the bucket.
+     */
+    static long bucketLimit(int bucket)
+    {
+        if(bucket < LINEAR_LIMIT) {
+        	return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        long low = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return low + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * @param fraction The percentile, from 0 to 1.
+     * @return The sampled latency at that percentile, in nanoseconds (the upper bound of its bucket), or 0 if nothing
+     * has been sampled yet.
+     */
+    public long latencyPercentile(double fraction)
+    {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+        	counts[i] = latency[i].sum();
+        	total += counts[i];
+        }
+        if(total == 0) {
+        	return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+        	seen += counts[i];
+        	if(seen >= rank) {
+        		return bucketLimit(i);
+        	}
+        }
+        return bucketLimit(BUCKETS - 1);
+    }
+
+    /**
+     * @param command A command id.
+     * @return The name of the command.
+     */
+    private static String commandName(int command)
+    {
+        if(command == NONE) {
+        	return "(none)";
+        }
+        if(command == QUIT) {
+        	return "quit";
+        }
+        if(command < BINARY_BASE) {
+        	return CalculatorOperators.UNARY.keyword(command - UNARY_BASE);
+        }
+        return CalculatorOperators.BINARY.keyword(command - BINARY_BASE);
+    }
+
+    @Override
+    public long getEvaluations()
+    {
+        long total = 0;
+        for(LongAdder status : statuses) {
+        	total += status.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(int i = 0; i < COMMANDS; i++) {
+        	String name = commandName(i);
+        	if(name != null) {
+        		counts.put(name, commands[i].sum());
+        	}
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getStatusCounts()
+    {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for(CalculatorStatus status : CalculatorStatus.values()) {
+        	counts.put(status.name(), statuses[status.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getLatencyP50Nanos()
+    {
+        return latencyPercentile(0.50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos()
+    {
+        return latencyPercentile(0.99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos()
+    {
+        return latencyPercentile(0.999);
+    }
+
+    @Override
+    public String report()
+    {
+        StringBuilder report = new StringBuilder();
+        report.append("Evaluations: ").append(getEvaluations()).append('\n');
+        report.append("Commands:\n");
+        for(Map.Entry<String, Long> entry : getCommandCounts().entrySet()) {
+        	report.append(String.format("  %-10s %d%n", entry.getKey(), entry.getValue()));
+        }
+        report.append("Outcomes:\n");
+        for(Map.Entry<String, Long> entry : getStatusCounts().entrySet()) {
+        	report.append(String.format("  %-20s %d%n", entry.getKey(), entry.getValue()));
+        }
+        report.append(String.format("Latency (ns, 1 in %d sampled): p50 %d  p90 %d  p99 %d  p99.9 %d  max %d%n",
+        		LATENCY_SAMPLE_RATE, latencyPercentile(0.5), latencyPercentile(0.9), latencyPercentile(0.99),
+        		latencyPercentile(0.999), latencyPercentile(1.0)));
+        return report.toString();
+    }
+
+    @Override
+    public void reset()
+    {
+        for(LongAdder[] adders : new LongAdder[][] {commands, statuses, latency}) {
+        	for(LongAdder adder : adders) {
+        		adder.reset();
+        	}
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under OBJECT_NAME, replacing any metrics registered
+     * there before.
+     *
+     * @throws JMException If the metrics cannot be registered.
+     */
+    public void register() throws JMException
+    {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if(ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+        	ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    }
+
+    /**
+     * @return The text report.
+     */
+    @Override
+    public String toString()
+    {
+        return report();
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Map;
+
+/**
+ * The JMX management interface of CalculatorMetrics. Registered under the name "Calculator:type=Metrics".
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public interface CalculatorMetricsMXBean
+{
+    /**
+     * @return The number of evaluated commands.
+     */
+    long getEvaluations();
+
+    /**
+     * @return The number of evaluations of each command, keyed by command ("negate", "+", "quit", ...). Lines whose
+     * command could not be determined are counted under "(none)".
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * @return The number of evaluations with each outcome, keyed by CalculatorStatus name.
+     */
+    Map<String, Long> getStatusCounts();
+
+    /**
+     * @return The median sampled evaluation latency, in nanoseconds.
+     */
+    long getLatencyP50Nanos();
+
+    /**
+     * @return The 99th percentile sampled evaluation latency, in nanoseconds.
+     */
+    long getLatencyP99Nanos();
+
+    /**
+     * @return The 99.9th percentile sampled evaluation latency, in nanoseconds.
+     */
+    long getLatencyP999Nanos();
+
+    /**
+     * @return A text report of every counter and the latency distribution.
+     */
+    String report();
+
+    /**
+     * Sets every counter and the latency histogram back to zero.
+     */
+    void reset();
+}
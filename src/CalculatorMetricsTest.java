@@ -0,0 +1,73 @@
+import java.util.Map;
+
+/**
+ * Test class for the CalculatorMetrics class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorMetricsTest {
+
+    /**
+     * Test that installed metrics count commands and outcomes of evaluate and execute:
+     */
+    @Isolated
+    public void metricsTestCountsCommandsAndOutcomes() throws AssertException
+    {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculator.setMetrics(metrics);
+        try
+        {
+            Calculator.evaluate("negate 5");
+            Calculator.evaluate("4 / 0");
+            Calculator.evaluate("bogus 1");
+            Calculator.evaluate("quit");
+            try
+            {
+                Calculator.execute(new String[] {"negate", "x"});
+                Assert.fail("Illegal number did not throw");
+            }
+            catch (NumberFormatException e)
+            {
+                // expected
+            }
+        }
+        catch (CalculatorException e)
+        {
+            Assert.fail("Wrong exception: " + e.getMessage());
+        }
+        finally
+        {
+            Calculator.setMetrics(null);
+        }
+        Map<String, Long> commands = metrics.getCommandCounts();
+        Map<String, Long> statuses = metrics.getStatusCounts();
+        Assert.assertEquals(Long.valueOf(2), commands.get("negate"));
+        Assert.assertEquals(Long.valueOf(1), commands.get("/"));
+        Assert.assertEquals(Long.valueOf(1), commands.get("quit"));
+        Assert.assertEquals(Long.valueOf(1), commands.get("(none)"));
+        Assert.assertEquals(Long.valueOf(1), statuses.get("VALUE"));
+        Assert.assertEquals(Long.valueOf(1), statuses.get("QUIT"));
+        Assert.assertEquals(Long.valueOf(1), statuses.get("DIVIDE_BY_ZERO"));
+        Assert.assertEquals(Long.valueOf(1), statuses.get("NUMBER_FORMAT"));
+        Assert.assertEquals(Long.valueOf(1), statuses.get("ILLEGAL_COMMAND"));
+        Assert.assertEquals(5, (int) metrics.getEvaluations());
+        Assert.assertTrue(metrics.report().startsWith("Evaluations: "));
+    }
+
+    /**
+     * Test that latency histogram buckets cover every value with a bounded relative error:
+     */
+    public void metricsTestHistogramBuckets() throws AssertException
+    {
+        long[] values = {0, 1, 15, 16, 17, 100, 1000, 123456789, Long.MAX_VALUE};
+        for (long value : values)
+        {
+            int bucket = CalculatorMetrics.bucket(value);
+            long limit = CalculatorMetrics.bucketLimit(bucket);
+            Assert.assertTrue(limit >= value);
+            Assert.assertTrue(limit - value <= value / 8);
+            Assert.assertTrue(bucket == 0 || CalculatorMetrics.bucketLimit(bucket - 1) < value);
+        }
+    }
+}
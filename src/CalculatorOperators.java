@@ -0,0 +1,257 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The registry of calculator commands. Two-Token commands ("negate 5") are unary operators and three-Token commands
+ * ("1 + 2") are binary operators. Both sets are compiled into perfect-hash OperatorTables when the class is loaded, so
+ * dispatching a command costs one hash and at most one keyword comparison, however many commands are registered.
+ *
+ * To add a command such as "*" or "%", register it in the static initializer below, or supply it from a plugin as a
+ * CalculatorUnaryOperator or CalculatorBinaryOperator service; no evaluator needs to change. Plugins are discovered
+ * once, when this class is loaded, and the tables are immutable from then on.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+final class CalculatorOperators
+{
+    /**
+     * Opcode of an operator that is not one of the built-in commands below.
+     */
+    static final byte CUSTOM = 0;
+
+    /**
+     * Opcodes of the built-in commands. Used by evaluators that compute built-in commands in other arithmetic modes.
+     */
+    static final byte NEGATE = 1, HALVE = 2, ADD = 3, SUBTRACT = 4, DIVIDE = 5;
+
+    /**
+     * Opcode of a custom binary operator whose second operand must not be 0, such as "%".
+     */
+    static final byte CUSTOM_DIVISION = 6;
+
+    /**
+     * The two-Token commands, keyed by the command Token.
+     */
+    static final OperatorTable<IntUnaryOperator> UNARY;
+
+    /**
+     * The three-Token commands, keyed by the command (middle) Token.
+     */
+    static final OperatorTable<IntBinaryOperator> BINARY;
+
+    /**
+     * The expression precedence of the three-Token command in each slot of BINARY.
+     */
+    private static final byte[] BINARY_PRECEDENCES;
+
+    static
+    {
+        Map<String, IntUnaryOperator> unary = new LinkedHashMap<>();
+        Map<String, IntBinaryOperator> binary = new LinkedHashMap<>();
+        Map<String, Byte> unaryOpcodes = new HashMap<>();
+        Map<String, Byte> binaryOpcodes = new HashMap<>();
+        Map<String, Integer> binaryPrecedences = new HashMap<>();
+
+        unary.put("negate", a -> a * -1);
+        unaryOpcodes.put("negate", NEGATE);
+        unary.put("halve", a -> a / 2);
+        unaryOpcodes.put("halve", HALVE);
+
+        binary.put("+", (a, b) -> a + b);
+        binaryOpcodes.put("+", ADD);
+        binaryPrecedences.put("+", CalculatorBinaryOperator.ADDITIVE);
+        binary.put("-", (a, b) -> a - b);
+        binaryOpcodes.put("-", SUBTRACT);
+        binaryPrecedences.put("-", CalculatorBinaryOperator.ADDITIVE);
+        binary.put("/", (a, b) -> a / b);
+        binaryOpcodes.put("/", DIVIDE);
+        binaryPrecedences.put("/", CalculatorBinaryOperator.MULTIPLICATIVE);
+
+        register(unary, ServiceLoader.load(CalculatorUnaryOperator.class), binary, binaryOpcodes, binaryPrecedences,
+                ServiceLoader.load(CalculatorBinaryOperator.class));
+
+        UNARY = new OperatorTable<>(unary, unaryOpcodes);
+        BINARY = new OperatorTable<>(binary, binaryOpcodes);
+        BINARY_PRECEDENCES = new byte[BINARY.capacity()];
+        for(int slot = 0; slot < BINARY_PRECEDENCES.length; slot++) {
+        	if(BINARY.keyword(slot) != null) {
+        		BINARY_PRECEDENCES[slot] = binaryPrecedences.get(BINARY.keyword(slot)).byteValue();
+        	}
+        }
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private CalculatorOperators()
+    {
+    }
+
+    /**
+     * Adds plugin commands to the command maps. A plugin that fails to load, throws from keyword(),
+     * rejectsZeroDivisor() or precedence(), has an invalid keyword or precedence, or would replace a command that is
+     * already registered (or "quit") is skipped with a warning on standard error, so one bad plugin cannot keep the
+     * calculator from starting.
+     *
+     * @param unary The two-Token commands, keyed by keyword. Plugin commands get no opcode, which means CUSTOM.
+     * @param unaryPlugins The two-Token plugin commands.
+     * @param binary The three-Token commands, keyed by keyword.
+     * @param binaryOpcodes The opcode of each three-Token command; plugin commands get CUSTOM or CUSTOM_DIVISION.
+     * @param binaryPrecedences The expression precedence of each three-Token command.
+     * @param binaryPlugins The three-Token plugin commands.
+     */
+    static void register(Map<String, IntUnaryOperator> unary, Iterable<? extends CalculatorUnaryOperator> unaryPlugins,
+            Map<String, IntBinaryOperator> binary, Map<String, Byte> binaryOpcodes,
+            Map<String, Integer> binaryPrecedences, Iterable<? extends CalculatorBinaryOperator> binaryPlugins)
+    {
+        Iterator<? extends CalculatorUnaryOperator> unaryOperators = unaryPlugins.iterator();
+        while(true) {
+        	CalculatorUnaryOperator operator;
+        	try {
+        		if(!unaryOperators.hasNext()) {
+        			break;
+        		}
+        		operator = unaryOperators.next();
+        	}
+        	catch(ServiceConfigurationError e) {
+        		System.err.println("Skipping calculator operator plugin: " + e.getMessage());
+        		continue;
+        	}
+        	try {
+        		String keyword = operator.keyword();
+        		if(isValidKeyword(keyword, unary)) {
+        			unary.put(keyword, operator);
+        		}
+        	}
+        	catch(RuntimeException e) {
+        		System.err.println("Skipping calculator operator plugin " + operator.getClass().getName() + ": " + e);
+        	}
+        }
+
+        Iterator<? extends CalculatorBinaryOperator> binaryOperators = binaryPlugins.iterator();
+        while(true) {
+        	CalculatorBinaryOperator operator;
+        	try {
+        		if(!binaryOperators.hasNext()) {
+        			break;
+        		}
+        		operator = binaryOperators.next();
+        	}
+        	catch(ServiceConfigurationError e) {
+        		System.err.println("Skipping calculator operator plugin: " + e.getMessage());
+        		continue;
+        	}
+        	try {
+        		String keyword = operator.keyword();
+        		// Ask everything before registering anything, so a plugin that throws is not half registered.
+        		byte opcode = operator.rejectsZeroDivisor() ? CUSTOM_DIVISION : CUSTOM;
+        		int precedence = operator.precedence();
+        		if(precedence != CalculatorBinaryOperator.ADDITIVE
+        				&& precedence != CalculatorBinaryOperator.MULTIPLICATIVE) {
+        			System.err.println("Skipping calculator operator plugin for \"" + keyword + "\": precedence "
+        					+ precedence + " is neither ADDITIVE nor MULTIPLICATIVE");
+        		}
+        		else if(isValidKeyword(keyword, binary)) {
+        			binary.put(keyword, operator);
+        			binaryOpcodes.put(keyword, opcode);
+        			binaryPrecedences.put(keyword, precedence);
+        		}
+        	}
+        	catch(RuntimeException e) {
+        		System.err.println("Skipping calculator operator plugin " + operator.getClass().getName() + ": " + e);
+        	}
+        }
+    }
+
+    /**
+     * @param keyword The keyword of a plugin command.
+     * @param registered The commands registered so far, keyed by keyword.
+     * @return true if the keyword is a valid Token that is not registered yet; otherwise prints a warning.
+     */
+    private static boolean isValidKeyword(String keyword, Map<String, ?> registered)
+    {
+        if(keyword == null || keyword.isEmpty() || keyword.indexOf(' ') >= 0) {
+        	System.err.println("Skipping calculator operator plugin with invalid keyword \"" + keyword + "\"");
+        	return false;
+        }
+        if(registered.containsKey(keyword) || keyword.equals("quit")) {
+        	System.err.println("Skipping calculator operator plugin for \"" + keyword + "\": already registered");
+        	return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a two-Token command and stores its outcome. A plugin command that throws is reported as a status, so
+     * that the non-throwing evaluators stay non-throwing: OVERFLOW for an ArithmeticException (e.g. from
+     * Math.negateExact), OPERATOR_ERROR for any other RuntimeException.
+     *
+     * @param slot The slot of the command in UNARY.
+     * @param a The operand.
+     * @param result The result object to overwrite with the outcome.
+     */
+    static void apply(int slot, int a, CalculatorResult result)
+    {
+        try {
+        	result.setValue(UNARY.operator(slot).applyAsInt(a));
+        }
+        catch(RuntimeException e) {
+        	result.setStatus(e instanceof ArithmeticException ? CalculatorStatus.OVERFLOW
+        			: CalculatorStatus.OPERATOR_ERROR);
+        }
+    }
+
+    /**
+     * Applies a three-Token command and stores its outcome: DIVIDE_BY_ZERO without calling the command if it is a
+     * division and b is 0, and otherwise its value. A plugin command that throws is reported as a status, so that the
+     * non-throwing evaluators stay non-throwing: an ArithmeticException is DIVIDE_BY_ZERO if b is 0 (e.g. a "%" that
+     * does not declare rejectsZeroDivisor) and OVERFLOW otherwise (e.g. from Math.multiplyExact), and any other
+     * RuntimeException is OPERATOR_ERROR.
+     *
+     * @param slot The slot of the command in BINARY.
+     * @param a The first operand.
+     * @param b The second operand.
+     * @param result The result object to overwrite with the outcome.
+     */
+    static void apply(int slot, int a, int b, CalculatorResult result)
+    {
+        if(b == 0 && isDivision(BINARY.opcode(slot))) {
+        	result.setStatus(CalculatorStatus.DIVIDE_BY_ZERO);
+        	return;
+        }
+        try {
+        	result.setValue(BINARY.operator(slot).applyAsInt(a, b));
+        }
+        catch(ArithmeticException e) {
+        	result.setStatus(b == 0 ? CalculatorStatus.DIVIDE_BY_ZERO : CalculatorStatus.OVERFLOW);
+        }
+        catch(RuntimeException e) {
+        	result.setStatus(CalculatorStatus.OPERATOR_ERROR);
+        }
+    }
+
+    /**
+     * @param slot The slot of a three-Token command in BINARY.
+     * @return Its expression precedence: CalculatorBinaryOperator.ADDITIVE or MULTIPLICATIVE.
+     */
+    static int precedence(int slot)
+    {
+        return BINARY_PRECEDENCES[slot];
+    }
+
+    /**
+     * @param opcode The opcode of a binary operator.
+     * @return true if the operator's second operand must not be 0.
+     */
+    static boolean isDivision(int opcode)
+    {
+        return opcode == DIVIDE || opcode == CUSTOM_DIVISION;
+    }
+}
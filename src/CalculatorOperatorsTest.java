@@ -0,0 +1,215 @@
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Test class for the CalculatorOperators class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorOperatorsTest {
+
+    /**
+     * Test that plugin operators are registered with their opcodes, cannot replace existing commands or "quit", and are
+     * skipped if they throw while being registered:
+     */
+    public void operatorPluginTestRegistration() throws AssertException
+    {
+        CalculatorUnaryOperator abs = new CalculatorUnaryOperator()
+        {
+            public String keyword() { return "abs"; }
+            public int applyAsInt(int a) { return Math.abs(a); }
+        };
+        CalculatorUnaryOperator quit = new CalculatorUnaryOperator()
+        {
+            public String keyword() { return "quit"; }
+            public int applyAsInt(int a) { return a; }
+        };
+        CalculatorBinaryOperator times = new CalculatorBinaryOperator()
+        {
+            public String keyword() { return "*"; }
+            public int applyAsInt(int a, int b) { return a * b; }
+        };
+        CalculatorBinaryOperator modulo = new CalculatorBinaryOperator()
+        {
+            public String keyword() { return "%"; }
+            public int applyAsInt(int a, int b) { return a % b; }
+            public boolean rejectsZeroDivisor() { return true; }
+        };
+        CalculatorBinaryOperator power = new CalculatorBinaryOperator()
+        {
+            public String keyword() { return "**"; }
+            public int applyAsInt(int a, int b) { return (int) Math.pow(a, b); }
+            public int precedence() { return 3; }
+        };
+        CalculatorBinaryOperator plus = new CalculatorBinaryOperator()
+        {
+            public String keyword() { return "+"; }
+            public int applyAsInt(int a, int b) { return 0; }
+        };
+        CalculatorUnaryOperator brokenKeyword = new CalculatorUnaryOperator()
+        {
+            public String keyword() { throw new IllegalStateException("not configured"); }
+            public int applyAsInt(int a) { return a; }
+        };
+        CalculatorBinaryOperator brokenDivisor = new CalculatorBinaryOperator()
+        {
+            public String keyword() { return "^"; }
+            public int applyAsInt(int a, int b) { return a; }
+            public boolean rejectsZeroDivisor() { throw new IllegalStateException("not configured"); }
+        };
+
+        Map<String, IntUnaryOperator> unary = new LinkedHashMap<>();
+        Map<String, IntBinaryOperator> binary = new LinkedHashMap<>();
+        Map<String, Byte> binaryOpcodes = new HashMap<>();
+        Map<String, Integer> binaryPrecedences = new HashMap<>();
+        binary.put("+", CalculatorOperators.BINARY.operator(CalculatorOperators.BINARY.find("+", 0, 1)));
+        binaryOpcodes.put("+", CalculatorOperators.ADD);
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try
+        {
+            CalculatorOperators.register(unary, Arrays.asList(brokenKeyword, abs, quit), binary, binaryOpcodes,
+                    binaryPrecedences, Arrays.asList(brokenDivisor, times, modulo, plus, power));
+        }
+        finally
+        {
+            System.setErr(err);
+        }
+
+        OperatorTable<IntUnaryOperator> unaryTable = new OperatorTable<>(unary, new HashMap<>());
+        OperatorTable<IntBinaryOperator> binaryTable = new OperatorTable<>(binary, binaryOpcodes);
+        Assert.assertEquals(1, unary.size());
+        Assert.assertEquals(7, unaryTable.operator(unaryTable.find("abs", 0, 3)).applyAsInt(-7));
+        Assert.assertEquals(3, binary.size());
+        Assert.assertFalse(binary.containsKey("^"));
+        Assert.assertFalse(binaryOpcodes.containsKey("^"));
+        Assert.assertEquals(5, binaryTable.operator(binaryTable.find("+", 0, 1)).applyAsInt(2, 3));
+        Assert.assertEquals(42, binaryTable.operator(binaryTable.find("*", 0, 1)).applyAsInt(6, 7));
+        Assert.assertEquals(CalculatorOperators.CUSTOM, binaryTable.opcode(binaryTable.find("*", 0, 1)));
+        Assert.assertEquals(CalculatorOperators.CUSTOM_DIVISION, binaryTable.opcode(binaryTable.find("%", 0, 1)));
+        Assert.assertFalse(binary.containsKey("**"));
+        Assert.assertEquals(Integer.valueOf(CalculatorBinaryOperator.ADDITIVE), binaryPrecedences.get("*"));
+        Assert.assertEquals(Integer.valueOf(CalculatorBinaryOperator.MULTIPLICATIVE), binaryPrecedences.get("%"));
+    }
+
+    /**
+     * Test that binary plugins listed in META-INF/services are discovered by ServiceLoader and dispatched through
+     * parseAndExecute and evaluateExpression, in a fresh class loader so that its operator tables are built anew:
+     */
+    @Isolated
+    public void operatorPluginTestServiceLoader() throws Exception
+    {
+        BinaryPlugins.run(loader -> {
+            Class<?> calculator = loader.loadClass("Calculator");
+            Method parseAndExecute = calculator.getMethod("parseAndExecute", String.class);
+            Assert.assertEquals("Attempted to divide by 0. Please try again.", parseAndExecute.invoke(null, "7 % 0"));
+            Assert.assertEquals("The result is: 1", parseAndExecute.invoke(null, "7 % 3"));
+            Assert.assertEquals("The result is: 42", parseAndExecute.invoke(null, "6 * 7"));
+            Assert.assertEquals("Arithmetic overflow. Please try again.",
+                    parseAndExecute.invoke(null, "2147483647 * 2"));
+            Assert.assertEquals("Calculator Exception, message is: Operator Failed",
+                    parseAndExecute.invoke(null, "1 ! 2"));
+            Assert.assertEquals("The result is: 12", parseAndExecute.invoke(null, "12 + 0"));
+
+            Class<?> resultType = loader.loadClass("CalculatorResult");
+            Object result = resultType.getConstructor().newInstance();
+            calculator.getMethod("evaluateExpression", CharSequence.class, resultType).invoke(null, "2 + 3 * 4",
+                    result);
+            Assert.assertEquals(Integer.valueOf(14), resultType.getMethod("getValue").invoke(result));
+        });
+    }
+
+    /**
+     * Runs tests in a fresh class loader whose META-INF/services lists ModuloOperator, TimesOperator, FailingOperator
+     * and a missing class, so that its operator tables are built anew with those plugins. The ServiceLoader
+     * diagnostics on standard error are suppressed, so the tests must be @Isolated. A nested class, since every method
+     * of a test class is run as a test.
+     */
+    static final class BinaryPlugins
+    {
+        /**
+         * A test run against a fresh copy of the calculator classes.
+         */
+        interface Test
+        {
+            void run(ClassLoader loader) throws Exception;
+        }
+
+        private BinaryPlugins()
+        {
+        }
+
+        /**
+         * @param test The test, given the class loader to load the calculator classes from.
+         */
+        static void run(Test test) throws Exception
+        {
+            Path services = Files.createTempDirectory("calculator-plugins");
+            Path list = services.resolve("META-INF/services/CalculatorBinaryOperator");
+            Files.createDirectories(list.getParent());
+            Files.write(list, Arrays.asList(ModuloOperator.class.getName(), TimesOperator.class.getName(),
+                    FailingOperator.class.getName(), "NoSuchOperator"));
+            URL classes = Calculator.class.getProtectionDomain().getCodeSource().getLocation();
+
+            Thread thread = Thread.currentThread();
+            ClassLoader context = thread.getContextClassLoader();
+            PrintStream err = System.err;
+            try (URLClassLoader loader = new URLClassLoader(new URL[] {classes, services.toUri().toURL()},
+                    ClassLoader.getPlatformClassLoader()))
+            {
+                thread.setContextClassLoader(loader);
+                System.setErr(new PrintStream(new ByteArrayOutputStream()));
+                test.run(loader);
+            }
+            finally
+            {
+                System.setErr(err);
+                thread.setContextClassLoader(context);
+                Files.delete(list);
+                Files.delete(list.getParent());
+                Files.delete(list.getParent().getParent());
+                Files.delete(services);
+            }
+        }
+    }
+
+    /**
+     * A "%" plugin that leaves division by 0 to the ArithmeticException of the remainder.
+     */
+    public static class ModuloOperator implements CalculatorBinaryOperator
+    {
+        public String keyword() { return "%"; }
+        public int applyAsInt(int a, int b) { return a % b; }
+    }
+
+    /**
+     * A "*" plugin that binds tighter than "+" in expressions.
+     */
+    public static class TimesOperator implements CalculatorBinaryOperator
+    {
+        public String keyword() { return "*"; }
+        public int applyAsInt(int a, int b) { return Math.multiplyExact(a, b); }
+        public int precedence() { return MULTIPLICATIVE; }
+    }
+
+    /**
+     * A "!" plugin that always fails.
+     */
+    public static class FailingOperator implements CalculatorBinaryOperator
+    {
+        public String keyword() { return "!"; }
+        public int applyAsInt(int a, int b) { throw new IllegalStateException("not configured"); }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * The typed outcome of evaluating a single calculator command: either a value, a request to quit, or the kind of error
+ * that occurred. Produced by Calculator.evaluate in a single pass over the input. The value is held as a long, so it
+ * is wide enough for every CalculatorArithmetic mode; int results are read with getValue and LONG and LONG_EXACT
+ * results with getLongValue.
+ *
+ * A result object may be reused across evaluations; each evaluation overwrites the previous outcome.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorResult
+{
+    /**
+     * The kind of outcome.
+     */
+    private CalculatorStatus status = CalculatorStatus.VALUE;
+
+    /**
+     * The computed value. Only meaningful when status is VALUE. Wide enough for every CalculatorArithmetic mode.
+     */
+    private long value;
+
+    /**
+     * @return The kind of outcome of the last evaluation.
+     */
+    public CalculatorStatus getStatus()
+    {
+        return status;
+    }
+
+    /**
+     * @return The computed value of the last evaluation, narrowed to an int. Only meaningful when getStatus() is VALUE
+     * and the command was evaluated with int arithmetic; use getLongValue() for the LONG modes.
+     */
+    public int getValue()
+    {
+        return (int) value;
+    }
+
+    /**
+     * @return The computed value of the last evaluation, as a long. Only meaningful when getStatus() is VALUE.
+     */
+    public long getLongValue()
+    {
+        return value;
+    }
+
+    /**
+     * @return true if the last evaluated command was "quit".
+     */
+    public boolean isQuit()
+    {
+        return status == CalculatorStatus.QUIT;
+    }
+
+    /**
+     * @return true if the last evaluation failed.
+     */
+    public boolean isError()
+    {
+        return status.isError();
+    }
+
+    /**
+     * Records a successfully computed value.
+     *
+     * @param value The computed value.
+     */
+    void setValue(int value)
+    {
+        this.status = CalculatorStatus.VALUE;
+        this.value = value;
+    }
+
+    /**
+     * Records a successfully computed long value.
+     *
+     * @param value The computed value.
+     */
+    void setValue(long value)
+    {
+        this.status = CalculatorStatus.VALUE;
+        this.value = value;
+    }
+
+    /**
+     * Records a non-value outcome (quit or an error).
+     *
+     * @param status The kind of outcome.
+     */
+    void setStatus(CalculatorStatus status)
+    {
+        this.status = status;
+        this.value = 0;
+    }
+
+    /**
+     * @return A readable description of the outcome, for debugging.
+     */
+    @Override
+    public String toString()
+    {
+        if(status == CalculatorStatus.VALUE) {
+            return "VALUE " + value;
+        }
+        return status.name();
+    }
+}
@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An off-heap, file-backed column store of evaluation results: the value and the status code of every result, in
+ * evaluation order. Results are written straight into memory-mapped regions of the file, so storing hundreds of
+ * millions of them takes no heap beyond one small buffer object per chunk, and a store that was spilled to disk can
+ * be reopened and scanned later without copying it into the heap.
+ *
+ * The file is a HEADER_SIZE byte header followed by chunks of CHUNK_RESULTS results. Each chunk holds a values
+ * region of 8-byte longs followed by a statuses region of one CalculatorStatus.code() byte per result, so a scan of
+ * either column reads contiguous memory. The header records the number of results, which is written on force() and
+ * close(); unused space in the last chunk is ignored. The header and values are little-endian on every platform,
+ * so a store written on one machine can be opened on any other, and on the common little-endian machines the byte
+ * order costs nothing.
+ *
+ * A store is not thread safe.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public final class CalculatorResultStore implements AutoCloseable
+{
+    /**
+     * Receives the results of a scan.
+     */
+    @FunctionalInterface
+    public interface Visitor
+    {
+        /**
+         * @param index The index of the result in the store.
+         * @param status The status of the result.
+         * @param value The value of the result; 0 unless the status is VALUE.
+         */
+        void visit(long index, CalculatorStatus status, long value);
+    }
+
+    /**
+     * The number of results in a chunk.
+     */
+    public static final int CHUNK_RESULTS = 1 << 20;
+
+    /**
+     * The size of the file header in bytes.
+     */
+    static final int HEADER_SIZE = 64;
+
+    private static final long MAGIC = 0x43414c4352455331L; // "CALCRES1"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0, VERSION_OFFSET = 8, CHUNK_OFFSET = 12, SIZE_OFFSET = 16;
+    private static final int STATUS_OFFSET = CHUNK_RESULTS * Long.BYTES;
+    private static final long CHUNK_SIZE = (long) CHUNK_RESULTS * (Long.BYTES + 1);
+
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long size;
+
+    /**
+     * Creates an empty store, replacing the file if it exists.
+     *
+     * @param file The file to store the results in.
+     * @return The store, open for appending.
+     * @throws IOException If the file cannot be created.
+     */
+    public static CalculatorResultStore create(Path file) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new CalculatorResultStore(channel, false, true);
+    }
+
+    /**
+     * Reopens a store that was written before, to append more results to it.
+     *
+     * @param file The file of the store.
+     * @return The store, open for appending after its last result.
+     * @throws IOException If the file cannot be opened or is not a result store.
+     */
+    public static CalculatorResultStore open(Path file) throws IOException
+    {
+        return new CalculatorResultStore(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                false, false);
+    }
+
+    /**
+     * Reopens a store that was written before, to read and scan it.
+     *
+     * @param file The file of the store.
+     * @return The store, open for reading only.
+     * @throws IOException If the file cannot be opened or is not a result store.
+     */
+    public static CalculatorResultStore openReadOnly(Path file) throws IOException
+    {
+        return new CalculatorResultStore(FileChannel.open(file, StandardOpenOption.READ), true, false);
+    }
+
+    /**
+     * @param channel The file of the store.
+     * @param readOnly true to map the file for reading only.
+     * @param empty true to initialize a new header, false to read the existing one.
+     * @throws IOException If the file cannot be mapped or is not a result store.
+     */
+    private CalculatorResultStore(FileChannel channel, boolean readOnly, boolean empty) throws IOException
+    {
+        this.channel = channel;
+        this.readOnly = readOnly;
+        try {
+        	if(!empty && channel.size() < HEADER_SIZE) {
+        		throw new IOException("Not a result store: file is too short");
+        	}
+        	header = map(0, HEADER_SIZE);
+        	if(empty) {
+        		header.putLong(MAGIC_OFFSET, MAGIC).putInt(VERSION_OFFSET, VERSION).putInt(CHUNK_OFFSET, CHUNK_RESULTS);
+        		header.putLong(SIZE_OFFSET, 0);
+        	}
+        	else if(header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION
+        			|| header.getInt(CHUNK_OFFSET) != CHUNK_RESULTS) {
+        		throw new IOException("Not a result store, or written by an incompatible version");
+        	}
+        	size = header.getLong(SIZE_OFFSET);
+        	if(size < 0 || HEADER_SIZE + chunkCount(size) * CHUNK_SIZE > channel.size()) {
+        		throw new IOException("Result store is truncated");
+        	}
+        }
+        catch(IOException | RuntimeException e) {
+        	channel.close();
+        	throw e;
+        }
+    }
+
+    /**
+     * @param size A number of results.
+     * @return The number of chunks needed to hold them.
+     */
+    private static long chunkCount(long size)
+    {
+        return (size + CHUNK_RESULTS - 1) / CHUNK_RESULTS;
+    }
+
+    /**
+     * @param position The offset in the file.
+     * @param length The length of the region.
+     * @return The region, mapped in little-endian byte order. Mapping past the end of a writable file grows it.
+     * @throws IOException If the region cannot be mapped.
+     */
+    private MappedByteBuffer map(long position, long length) throws IOException
+    {
+        MappedByteBuffer buffer = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE,
+                position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * @param index The index of a result.
+     * @return The chunk holding it, mapped on first use.
+     * @throws IOException If the chunk cannot be mapped.
+     */
+    private MappedByteBuffer chunk(long index) throws IOException
+    {
+        int chunk = (int) (index / CHUNK_RESULTS);
+        while(chunks.size() <= chunk) {
+        	chunks.add(map(HEADER_SIZE + chunks.size() * CHUNK_SIZE, CHUNK_SIZE));
+        }
+        return chunks.get(chunk);
+    }
+
+    /**
+     * @return The number of results in the store.
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * Appends a result.
+     *
+     * @param result The result to store.
+     * @throws IOException If the store is read only or its file cannot be grown.
+     */
+    public void append(CalculatorResult result) throws IOException
+    {
+        append(result.getStatus().code(), result.getLongValue());
+    }
+
+    /**
+     * Appends a range of the results of a batch evaluation, as stored by Calculator.evaluateAll.
+     *
+     * @param values The values of the results.
+     * @param statuses The status codes of the results.
+     * @param from The index of the first result to append.
+     * @param to The index after the last result to append.
+     * @throws IOException If the store is read only or its file cannot be grown.
+     */
+    public void append(int[] values, byte[] statuses, int from, int to) throws IOException
+    {
+        for(int i = from; i < to; i++) {
+        	append(statuses[i], values[i]);
+        }
+    }
+
+    /**
+     * @param code The status code of the result.
+     * @param value The value of the result.
+     * @throws IOException If the store is read only or its file cannot be grown.
+     */
+    private void append(byte code, long value) throws IOException
+    {
+        if(readOnly) {
+        	throw new IOException("Result store is open read only");
+        }
+        MappedByteBuffer chunk = chunk(size);
+        int slot = (int) (size % CHUNK_RESULTS);
+        chunk.putLong(slot * Long.BYTES, value);
+        chunk.put(STATUS_OFFSET + slot, code);
+        size++;
+    }
+
+    /**
+     * @param index The index of a result.
+     * @return The status of the result.
+     * @throws IOException If the chunk holding the result cannot be mapped.
+     */
+    public CalculatorStatus status(long index) throws IOException
+    {
+        checkIndex(index);
+        return CalculatorStatus.fromCode(chunk(index).get(STATUS_OFFSET + (int) (index % CHUNK_RESULTS)));
+    }
+
+    /**
+     * @param index The index of a result.
+     * @return The value of the result; 0 unless its status is VALUE.
+     * @throws IOException If the chunk holding the result cannot be mapped.
+     */
+    public long value(long index) throws IOException
+    {
+        checkIndex(index);
+        return chunk(index).getLong((int) (index % CHUNK_RESULTS) * Long.BYTES);
+    }
+
+    /**
+     * Copies a stored result into a result object.
+     *
+     * @param index The index of a result.
+     * @param result The result object to overwrite.
+     * @throws IOException If the chunk holding the result cannot be mapped.
+     */
+    public void read(long index, CalculatorResult result) throws IOException
+    {
+        CalculatorStatus status = status(index);
+        if(status == CalculatorStatus.VALUE) {
+        	result.setValue(value(index));
+        }
+        else {
+        	result.setStatus(status);
+        }
+    }
+
+    /**
+     * Visits every result in order, reading straight from the mapped file.
+     *
+     * @param visitor The visitor to pass each result to.
+     * @throws IOException If a chunk cannot be mapped.
+     */
+    public void scan(Visitor visitor) throws IOException
+    {
+        for(long base = 0; base < size; base += CHUNK_RESULTS) {
+        	MappedByteBuffer chunk = chunk(base);
+        	int length = (int) Math.min(CHUNK_RESULTS, size - base);
+        	for(int i = 0; i < length; i++) {
+        		visitor.visit(base + i, CalculatorStatus.fromCode(chunk.get(STATUS_OFFSET + i)),
+        				chunk.getLong(i * Long.BYTES));
+        	}
+        }
+    }
+
+    /**
+     * Counts the results with a status by scanning only the statuses column.
+     *
+     * @param status The status to count.
+     * @return The number of results with that status.
+     * @throws IOException If a chunk cannot be mapped.
+     */
+    public long count(CalculatorStatus status) throws IOException
+    {
+        byte code = status.code();
+        long count = 0;
+        for(long base = 0; base < size; base += CHUNK_RESULTS) {
+        	MappedByteBuffer chunk = chunk(base);
+        	int length = (int) Math.min(CHUNK_RESULTS, size - base);
+        	for(int i = 0; i < length; i++) {
+        		if(chunk.get(STATUS_OFFSET + i) == code) {
+        			count++;
+        		}
+        	}
+        }
+        return count;
+    }
+
+    /**
+     * Records the number of results in the header and writes every mapped region back to the file.
+     */
+    public void force()
+    {
+        if(readOnly) {
+        	return;
+        }
+        header.putLong(SIZE_OFFSET, size);
+        for(MappedByteBuffer chunk : chunks) {
+        	chunk.force();
+        }
+        header.force();
+    }
+
+    /**
+     * Forces the store to the file and closes it. The mapped regions stay valid until they are garbage collected,
+     * but must not be used.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        force();
+        chunks.clear();
+        channel.close();
+    }
+
+    /**
+     * @param index The index of a result.
+     */
+    private void checkIndex(long index)
+    {
+        if(index < 0 || index >= size) {
+        	throw new IndexOutOfBoundsException("Result " + index + " of " + size);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Test class for the CalculatorResultStore class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorResultStoreTest {
+
+    /**
+     * Test that results stored off-heap from a file evaluation reload with the same statuses and values:
+     */
+    public void evaluateTestResultStore() throws Exception
+    {
+        String[] lines = {"negate 5", "1 + 2", "foo", "5 / 0", "halve x", "", "7 - 9", "quit", "1 + 1"};
+        Path input = Files.createTempFile("commands", ".txt");
+        Path file = Files.createTempFile("results", ".bin");
+        try
+        {
+            Files.write(input, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+            try (CalculatorResultStore store = CalculatorResultStore.create(file))
+            {
+                Assert.assertEquals(8, (int) FileEvaluator.evaluate(input, store));
+            }
+            try (CalculatorResultStore store = CalculatorResultStore.openReadOnly(file))
+            {
+                Assert.assertEquals(7, (int) store.size());
+                CalculatorResult result = new CalculatorResult();
+                for (int i = 0; i < 7; i++)
+                {
+                    store.read(i, result);
+                    Assert.assertEquals(Calculator.parseAndExecute(lines[i]), CalculatorFormatter.format(result));
+                }
+                Assert.assertEquals(3, (int) store.count(CalculatorStatus.VALUE));
+                long[] sum = new long[1];
+                store.scan(new CalculatorResultStore.Visitor()
+                {
+                    public void visit(long index, CalculatorStatus status, long value)
+                    {
+                        sum[0] += value;
+                    }
+                });
+                Assert.assertEquals(-5 + 3 - 2, (int) sum[0]);
+            }
+        }
+        finally
+        {
+            Files.delete(input);
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test that a result store spanning several chunks can be reopened and appended to, and is little-endian:
+     */
+    public void resultStoreTestChunksAndReopen() throws Exception
+    {
+        int size = CalculatorResultStore.CHUNK_RESULTS + 10;
+        int[] values = new int[size];
+        byte[] statuses = new byte[size];
+        for (int i = 0; i < size; i++)
+        {
+            values[i] = i % 7 == 0 ? 0 : -i;
+            statuses[i] = i % 7 == 0 ? CalculatorStatus.DIVIDE_BY_ZERO.code() : CalculatorStatus.VALUE.code();
+        }
+        Path file = Files.createTempFile("results", ".bin");
+        try
+        {
+            try (CalculatorResultStore store = CalculatorResultStore.create(file))
+            {
+                store.append(values, statuses, 0, size - 5);
+            }
+            try (CalculatorResultStore store = CalculatorResultStore.open(file))
+            {
+                Assert.assertEquals(size - 5, (int) store.size());
+                store.append(values, statuses, size - 5, size);
+            }
+            // The header and values are little-endian whatever the platform's byte order:
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            Assert.assertEquals(size, (int) bytes.getLong(16));
+            Assert.assertEquals(-1, (int) bytes.getLong(CalculatorResultStore.HEADER_SIZE + Long.BYTES));
+            try (CalculatorResultStore store = CalculatorResultStore.openReadOnly(file))
+            {
+                Assert.assertEquals(size, (int) store.size());
+                Assert.assertEquals((size + 6) / 7, (int) store.count(CalculatorStatus.DIVIDE_BY_ZERO));
+                Assert.assertEquals(-(size - 1), (int) store.value(size - 1));
+                Assert.assertTrue(store.status(size - 1) == CalculatorStatus.VALUE);
+                Assert.assertTrue(store.status(CalculatorResultStore.CHUNK_RESULTS + 3)
+                        == CalculatorStatus.DIVIDE_BY_ZERO);
+            }
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+}
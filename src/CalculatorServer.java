@@ -0,0 +1,437 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * A TCP server for the Driver line protocol: each line a client sends is a calculator command, and the server answers
+ * with the line parseAndExecute reports for it. "quit" ends the session: the server sends the results of the lines
+ * before it and closes the connection, without answering "quit" itself.
+ *
+ * All sessions are served by a single thread with a non-blocking Selector, so thousands of concurrent sessions share
+ * the stateless Calculator without a thread each. Sessions are pipelined: a client may send any number of lines
+ * without waiting, and every complete line in a read is evaluated and answered, in order, in one write.
+ *
+ * Lines end with "\n" (a preceding "\r" is ignored) and are UTF-8. ASCII lines are evaluated in place in the read
+ * buffer; a line with any other byte is decoded first, so that it gets the same answer as on the other line readers.
+ * A last line the client sends without a "\n" before closing its side of the connection is evaluated too. Usage: java
+ * CalculatorServer [port]
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorServer implements Runnable, AutoCloseable
+{
+    /**
+     * The default port to listen on.
+     */
+    public static final int DEFAULT_PORT = 5005;
+
+    /**
+     * The longest line a client may send, in bytes, not counting its line terminator. A longer line ends the session
+     * like "quit": the lines before it are answered, and it and the lines after it are not.
+     */
+    static final int MAX_LINE = 4096;
+
+    /**
+     * The size of each session's read buffer. It holds several lines, so that a read can take many pipelined lines at
+     * once; must be more than MAX_LINE + 2.
+     */
+    private static final int READ_BUFFER = 16 << 10;
+
+    /**
+     * The line separator of the protocol, on every platform. SessionDriver's socket sessions end their results with
+     * it too.
+     */
+    static final String PROTOCOL_LINE_SEPARATOR = "\n";
+
+    private static final byte[] LINE_SEPARATOR = PROTOCOL_LINE_SEPARATOR.getBytes(StandardCharsets.US_ASCII);
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private volatile boolean running = true;
+
+    /**
+     * Per-thread evaluation state. The server evaluates on its selector thread only, so one of each suffices.
+     */
+    private final CalculatorTokenizer Tokens = new CalculatorTokenizer();
+    private final CalculatorResult result = new CalculatorResult();
+    private final AsciiCharSequence line = new AsciiCharSequence();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Holds a decoded non-ASCII line. A line of MAX_LINE bytes decodes to at most MAX_LINE chars.
+     */
+    private final CharBuffer decoded = CharBuffer.allocate(MAX_LINE);
+
+    /**
+     * Opens a server listening on the loopback interface. Call run to start serving.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public CalculatorServer(int port) throws IOException
+    {
+        this(new InetSocketAddress("127.0.0.1", port));
+    }
+
+    /**
+     * Opens a server listening on the given address. Call run to start serving.
+     *
+     * @param address The address to listen on.
+     * @throws IOException If the address cannot be bound.
+     */
+    public CalculatorServer(InetSocketAddress address) throws IOException
+    {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * @return The port the server is listening on.
+     * @throws IOException If the port cannot be determined.
+     */
+    public int getPort() throws IOException
+    {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Serves sessions until close is called.
+     */
+    @Override
+    public void run()
+    {
+        try {
+        	while(running) {
+        		selector.select();
+        		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        		while(keys.hasNext()) {
+        			SelectionKey key = keys.next();
+        			keys.remove();
+        			try {
+        				if(!key.isValid()) {
+        					continue;
+        				}
+        				if(key.isAcceptable()) {
+        					accept();
+        				}
+        				else {
+        					if(key.isWritable()) {
+        						write(key);
+        					}
+        					if(key.isValid() && key.isReadable()) {
+        						read(key);
+        					}
+        				}
+        			}
+        			catch(IOException e) {
+        				closeSession(key);
+        			}
+        		}
+        	}
+        }
+        catch(IOException e) {
+        	if(running) {
+        		throw new RuntimeException(e);
+        	}
+        }
+        finally {
+        	closeAll();
+        }
+    }
+
+    /**
+     * Accepts all pending connections.
+     *
+     * @throws IOException If a connection cannot be configured.
+     */
+    private void accept() throws IOException
+    {
+        SocketChannel channel;
+        while((channel = server.accept()) != null) {
+        	channel.configureBlocking(false);
+        	channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        	channel.register(selector, SelectionKey.OP_READ, new Session());
+        }
+    }
+
+    /**
+     * Reads what a client has sent, evaluates every complete line and queues the results.
+     *
+     * @param key The session's key.
+     * @throws IOException If the connection fails.
+     */
+    private void read(SelectionKey key) throws IOException
+    {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Session session = (Session) key.attachment();
+        int read = channel.read(session.in);
+        if(read < 0) {
+        	// The client has closed its side; answer what it sent and close once the answers are written.
+        	session.eof = true;
+        }
+
+        ByteBuffer in = session.in;
+        in.flip();
+        int lineStart = in.position();
+        int limit = in.limit();
+        for(int i = lineStart; i < limit && !session.quit; i++) {
+        	if(in.get(i) == '\n') {
+        		evaluateLine(session, lineStart, i);
+        		lineStart = i + 1;
+        	}
+        }
+        if(session.eof && !session.quit && lineStart < limit) {
+        	// The last line has no line terminator:
+        	evaluateLine(session, lineStart, limit);
+        	lineStart = limit;
+        }
+        if(!session.closing() && lineLength(in, lineStart, limit) > MAX_LINE) {
+        	// Already too long, however it ends:
+        	session.quit = true;
+        }
+        in.position(lineStart);
+        in.compact();
+
+        if(session.out.position() > 0 || session.closing()) {
+        	write(key);
+        }
+    }
+
+    /**
+     * Evaluates one line of a session's read buffer and queues its result. Ends the session instead if the line is
+     * "quit" or longer than MAX_LINE bytes.
+     *
+     * @param session The session.
+     * @param start The index of the first byte of the line.
+     * @param end The index of its "\n", or after its last byte if it has none.
+     */
+    private void evaluateLine(Session session, int start, int end)
+    {
+        ByteBuffer in = session.in;
+        if(lineLength(in, start, end) > MAX_LINE) {
+        	session.quit = true;
+        	return;
+        }
+        if(end > start && in.get(end - 1) == '\r') {
+        	end--;
+        }
+        boolean isAscii = true;
+        for(int i = start; i < end; i++) {
+        	if(in.get(i) < 0) {
+        		isAscii = false;
+        		break;
+        	}
+        }
+        Calculator.evaluate(Tokens.reset(isAscii ? line.wrap(in, start, end) : decode(in, start, end)), result);
+        if(result.isQuit()) {
+        	session.quit = true;
+        }
+        else {
+        	session.queue(result);
+        }
+    }
+
+    /**
+     * Decodes a line of a read buffer as UTF-8 into the reusable char buffer. The buffer's position and limit are left
+     * as they were.
+     *
+     * @param in A read buffer.
+     * @param start The index of the first byte of the line.
+     * @param end The index after its last byte, not counting its line terminator.
+     * @return The decoded line.
+     */
+    private CharBuffer decode(ByteBuffer in, int start, int end)
+    {
+        int position = in.position();
+        int limit = in.limit();
+        in.limit(end).position(start);
+        decoded.clear();
+        decoder.reset();
+        decoder.decode(in, decoded, true);
+        decoder.flush(decoded);
+        in.limit(limit).position(position);
+        decoded.flip();
+        return decoded;
+    }
+
+    /**
+     * @param in A read buffer.
+     * @param start The index of the first byte of a line.
+     * @param end The index after its last byte, not counting its "\n".
+     * @return The length of the line, not counting a final "\r".
+     */
+    private static int lineLength(ByteBuffer in, int start, int end)
+    {
+        return end > start && in.get(end - 1) == '\r' ? end - start - 1 : end - start;
+    }
+
+    /**
+     * Writes as much of the queued results as the connection accepts, and closes the session once everything is
+     * written if it is ending.
+     *
+     * @param key The session's key.
+     * @throws IOException If the connection fails.
+     */
+    private void write(SelectionKey key) throws IOException
+    {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Session session = (Session) key.attachment();
+        ByteBuffer out = session.out;
+        out.flip();
+        channel.write(out);
+        boolean done = !out.hasRemaining();
+        out.compact();
+        if(done && session.closing()) {
+        	closeSession(key);
+        }
+        else if(done) {
+        	key.interestOps(SelectionKey.OP_READ);
+        }
+        else {
+        	// Stop reading until the client catches up with the answers, so a session's memory stays bounded.
+        	key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes a session's connection.
+     *
+     * @param key The session's key.
+     */
+    private void closeSession(SelectionKey key)
+    {
+        key.cancel();
+        try {
+        	key.channel().close();
+        }
+        catch(IOException e) {
+        	// Nothing more can be done for this session.
+        }
+    }
+
+    /**
+     * Closes every connection and the server socket.
+     */
+    private void closeAll()
+    {
+        for(SelectionKey key : selector.keys()) {
+        	closeSession(key);
+        }
+        try {
+        	selector.close();
+        }
+        catch(IOException e) {
+        	// Already shutting down.
+        }
+    }
+
+    /**
+     * Stops serving and closes every connection. Safe to call from any thread.
+     */
+    @Override
+    public void close()
+    {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Starts a server and serves until the process is killed.
+     *
+     * @param args An optional port number.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? parsePort(args[0]) : DEFAULT_PORT;
+        if(port < 0 || args.length > 1) {
+        	System.err.println("Usage: java CalculatorServer [<port, 0 to 65535>]");
+        	return;
+        }
+        CalculatorServer server = new CalculatorServer(port);
+        System.out.println("Calculator server listening on port " + server.getPort());
+        server.run();
+    }
+
+    /**
+     * @param port A port number argument.
+     * @return The port, or -1 if the argument is not a number from 0 to 65535.
+     */
+    static int parsePort(String port)
+    {
+        try {
+        	int value = Integer.parseInt(port);
+        	return value >= 0 && value <= 0xFFFF ? value : -1;
+        }
+        catch(NumberFormatException e) {
+        	return -1;
+        }
+    }
+
+    /**
+     * The buffers of one client session.
+     */
+    private static class Session
+    {
+        /**
+         * Received bytes not yet evaluated (a partial line).
+         */
+        final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+
+        /**
+         * Results not yet written. Grows if a client pipelines more lines than fit.
+         */
+        ByteBuffer out = ByteBuffer.allocate(READ_BUFFER);
+
+        /**
+         * true once the client has sent "quit" or a line longer than MAX_LINE.
+         */
+        boolean quit;
+
+        /**
+         * true once the client has closed its side of the connection.
+         */
+        boolean eof;
+
+        /**
+         * @return true if the session ends once its queued results are written.
+         */
+        boolean closing()
+        {
+            return quit || eof;
+        }
+
+        /**
+         * Appends the result line of an outcome.
+         *
+         * @param result The outcome.
+         */
+        void queue(CalculatorResult result)
+        {
+            if(out.remaining() < CalculatorFormatter.MAX_LENGTH + LINE_SEPARATOR.length) {
+            	ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2);
+            	out.flip();
+            	bigger.put(out);
+            	out = bigger;
+            }
+            CalculatorFormatter.write(result, out);
+            out.put(LINE_SEPARATOR);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for the CalculatorServer class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorServerTest {
+
+    /**
+     * Test that a last line without "\n" is answered when the client closes its side, and that a line longer than
+     * MAX_LINE ends the session after the answers to the lines before it:
+     */
+    public void serverTestLineEnds() throws Exception
+    {
+        String longest = "x".repeat(CalculatorServer.MAX_LINE);
+        String[] inputs = {"1 + 2\r\nnegate 5", longest + "\r\n1 + 1\n", "1 + 1\n" + longest + "x\n2 + 2\n",
+                "1 + 1\n" + longest + "x"};
+        String[] expected = {"The result is: 3\nThe result is: -5\n",
+                "Calculator Exception, message is: Illegal Command\nThe result is: 2\n", "The result is: 2\n",
+                "The result is: 2\n"};
+        // The last session never closes its side: its unfinished line must end it once it is too long.
+        boolean[] closeOutput = {true, true, true, false};
+
+        CalculatorServer server = new CalculatorServer(0);
+        Thread thread = new Thread(server, "server-test");
+        thread.start();
+        try
+        {
+            for (int i = 0; i < inputs.length; i++)
+            {
+                try (Socket socket = new Socket("127.0.0.1", server.getPort()))
+                {
+                    socket.setSoTimeout(10000);
+                    socket.getOutputStream().write(inputs[i].getBytes(StandardCharsets.US_ASCII));
+                    if (closeOutput[i])
+                    {
+                        socket.shutdownOutput();
+                    }
+                    InputStream in = socket.getInputStream();
+                    Assert.assertEquals(expected[i], new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+                }
+            }
+        }
+        finally
+        {
+            server.close();
+            thread.join();
+        }
+    }
+
+    /**
+     * Test that a line with non-ASCII bytes is decoded as UTF-8, so it gets the answer parseAndExecute gives the
+     * decoded line, malformed bytes included:
+     */
+    public void serverTestNonAsciiLines() throws Exception
+    {
+        byte[] digits = "\u0661\u0662 + 1\n".getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = {'n', 'e', 'g', 'a', 't', 'e', ' ', '1', (byte) 0xFF, '\n'};
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(digits);
+        input.write(malformed);
+        String expected = Calculator.parseAndExecute("\u0661\u0662 + 1") + "\n"
+                + Calculator.parseAndExecute("negate 1\uFFFD") + "\n";
+
+        CalculatorServer server = new CalculatorServer(0);
+        Thread thread = new Thread(server, "server-test");
+        thread.start();
+        try (Socket socket = new Socket("127.0.0.1", server.getPort()))
+        {
+            socket.setSoTimeout(10000);
+            socket.getOutputStream().write(input.toByteArray());
+            socket.shutdownOutput();
+            InputStream in = socket.getInputStream();
+            Assert.assertEquals(expected, new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+        }
+        finally
+        {
+            server.close();
+            thread.join();
+        }
+    }
+}
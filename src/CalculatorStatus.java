@@ -0,0 +1,113 @@
+/**
+ * The possible outcomes of evaluating a single calculator command. Every outcome other than VALUE carries the exact,
+ * preallocated message that Calculator.parseAndExecute reports for it, so callers can turn an outcome into user
+ * feedback without any exception being created.
+ *
+ * Each outcome also has a small numeric code (its ordinal) for compact storage, e.g. in a byte[] of statuses.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public enum CalculatorStatus
+{
+    /**
+     * The command was evaluated correctly and produced an int value.
+     */
+    VALUE(null),
+
+    /**
+     * The command was "quit"; the program should end.
+     */
+    QUIT("quit"),
+
+    /**
+     * A division by zero was attempted (an ArithmeticException in execute).
+     */
+    DIVIDE_BY_ZERO("Attempted to divide by 0. Please try again."),
+
+    /**
+     * A numeric Token could not be parsed to an int (a NumberFormatException in execute).
+     */
+    NUMBER_FORMAT("Input number cannot be parsed to an int. Please try again."),
+
+    /**
+     * The command Token is not a valid command (a CalculatorException("Illegal Command") in execute).
+     */
+    ILLEGAL_COMMAND("Calculator Exception, message is: Illegal Command"),
+
+    /**
+     * The input has the wrong number of Tokens (a CalculatorException("Illegal Token Length") in execute).
+     */
+    ILLEGAL_TOKEN_LENGTH("Calculator Exception, message is: Illegal Token Length"),
+
+    /**
+     * The result does not fit the value type. Only reported by the exact CalculatorArithmetic modes.
+     */
+    OVERFLOW("Arithmetic overflow. Please try again."),
+
+    /**
+     * A multi-operator expression is malformed (a CalculatorException("Illegal Expression") from
+     * CalculatorExpression.compile).
+     */
+    ILLEGAL_EXPRESSION("Calculator Exception, message is: Illegal Expression"),
+
+    /**
+     * A plugin command failed with an exception other than an ArithmeticException. See CalculatorOperators.apply.
+     */
+    OPERATOR_ERROR("Calculator Exception, message is: Operator Failed");
+
+    /**
+     * All outcomes, indexed by code. Cached because values() copies its array on every call.
+     */
+    private static final CalculatorStatus[] BY_CODE = values();
+
+    /**
+     * The message reported by parseAndExecute for this outcome. null for VALUE, whose message depends on the value.
+     */
+    private final String message;
+
+    /**
+     * @param message The message reported by parseAndExecute for this outcome.
+     */
+    CalculatorStatus(String message)
+    {
+        this.message = message;
+    }
+
+    /**
+     * @return The message reported by parseAndExecute for this outcome, or null for VALUE.
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+
+    /**
+     * @return true if this outcome is one of the error outcomes (neither VALUE nor QUIT).
+     */
+    public boolean isError()
+    {
+        return this != VALUE && this != QUIT;
+    }
+
+    /**
+     * @return The numeric code of this outcome, suitable for storing in a byte.
+     */
+    public byte code()
+    {
+        return (byte) ordinal();
+    }
+
+    /**
+     * @param code A numeric code returned by code().
+     * @return The outcome with that code.
+     * @throws IllegalArgumentException Thrown if no outcome has that code.
+     */
+    public static CalculatorStatus fromCode(int code)
+    {
+        if(code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,282 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Property-based stress harness for Calculator.parseAndExecute. Generates millions of random lines, valid and invalid
+ * alike (malformed and out of range numbers, unknown commands, wrong Token counts, stray spaces, random character
+ * damage), and checks every answer against an independent reference model: the original String.split,
+ * Integer.parseInt and exception based calculator, written out directly.
+ *
+ * Runs one worker per core. Each worker generates a batch of lines and their expected answers, then times only the
+ * parseAndExecute calls, so the reported throughput (lines/sec) and allocation (bytes/line, from the HotSpot
+ * ThreadMXBean) measure the calculator rather than the generator. Correctness and performance regressions show up in
+ * the same run. A run is reproducible from its seed.
+ *
+ * Usage: java CalculatorStressHarness [lines] [seed]
+ * Exits with status 1 if any answer differs from the reference model.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorStressHarness
+{
+    /**
+     * The number of lines a worker generates before timing them.
+     */
+    private static final int BATCH = 4096;
+
+    private static final int[] EDGE_NUMBERS = {0, 1, -1, 2, -2, 7, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1};
+
+    private static final String[] BAD_NUMBERS = {"", "+", "-", "--1", "+-1", "2147483648", "-2147483649",
+            "99999999999", "1a", "a1", "0x1F", "1.5", "1e3", "1_000", "1,000", "\u00BD", "NaN", "five"};
+
+    private static final String[] UNARY_COMMANDS = {"negate", "halve"};
+
+    private static final String[] BINARY_COMMANDS = {"+", "-", "/"};
+
+    private static final String[] BAD_COMMANDS = {"Negate", "NEGATE", "half", "halve2", "*", "%", "plus", "++", "//",
+            "quit", "", "negate ", "+-"};
+
+    /**
+     * Results are folded into this field so the JIT cannot discard the checked calls.
+     */
+    private static volatile int sink;
+
+    /**
+     * @param args Optional number of lines and random seed.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        long lines = args.length > 0 ? Long.parseLong(args[0]) : 8_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        long[][] stats = new long[workers][];
+        AtomicReference<String> firstMismatch = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < workers; i++) {
+        	int worker = i;
+        	long share = lines / workers + (i < lines % workers ? 1 : 0);
+        	threads.add(new Thread(() -> stats[worker] = run(seed + worker, share, firstMismatch), "stress-" + i));
+        }
+        long start = System.nanoTime();
+        for(Thread thread : threads) {
+        	thread.start();
+        }
+        for(Thread thread : threads) {
+        	thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long mismatches = 0;
+        long bytes = 0;
+        double rate = 0;
+        for(long[] worker : stats) {
+        	mismatches += worker[0];
+        	bytes += worker[2];
+        	if(worker[1] > 0) {
+        		rate += worker[3] / (worker[1] / 1e9);
+        	}
+        }
+        System.out.println(String.format("%d lines on %d threads, seed %d, %.1f s", lines, workers, seed,
+        		elapsed / 1e9));
+        System.out.println(String.format("parseAndExecute: %.0f lines/sec, %.1f bytes/line", rate,
+        		(double) bytes / lines));
+        System.out.println(String.format("Mismatches: %d", mismatches));
+        if(mismatches > 0) {
+        	System.out.println("First mismatch: " + firstMismatch.get());
+        	System.exit(1);
+        }
+    }
+
+    /**
+     * Generates and checks lines on the calling thread.
+     *
+     * @param seed The seed of the line generator.
+     * @param lines The number of lines to check.
+     * @param firstMismatch Set to a description of the first wrong answer, if there is one.
+     * @return The number of mismatches, the nanoseconds spent in parseAndExecute, the bytes it allocated and the number
+     * of lines checked.
+     */
+    static long[] run(long seed, long lines, AtomicReference<String> firstMismatch)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] batch = new String[BATCH];
+        String[] expected = new String[BATCH];
+        String[] actual = new String[BATCH];
+        long mismatches = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for(long done = 0; done < lines; done += BATCH) {
+        	int count = (int) Math.min(BATCH, lines - done);
+        	for(int i = 0; i < count; i++) {
+        		batch[i] = generate(random);
+        		expected[i] = reference(batch[i]);
+        	}
+
+        	long startBytes = threads.getThreadAllocatedBytes(thread);
+        	long start = System.nanoTime();
+        	for(int i = 0; i < count; i++) {
+        		actual[i] = Calculator.parseAndExecute(batch[i]);
+        	}
+        	nanos += System.nanoTime() - start;
+        	bytes += threads.getThreadAllocatedBytes(thread) - startBytes;
+
+        	for(int i = 0; i < count; i++) {
+        		if(!expected[i].equals(actual[i])) {
+        			mismatches++;
+        			firstMismatch.compareAndSet(null, String.format("\"%s\": expected \"%s\", got \"%s\"", batch[i],
+        					expected[i], actual[i]));
+        		}
+        	}
+        	sink += actual[count - 1].length();
+        }
+        return new long[] {mismatches, nanos, bytes, lines};
+    }
+
+    /**
+     * Generates a random line: a valid command, a command with a bad number, a bad command, a wrong number of Tokens,
+     * "quit", or any of those with an extra space or a damaged character.
+     *
+     * @param random The source of randomness.
+     * @return The line.
+     */
+    static String generate(SplittableRandom random)
+    {
+        String line;
+        int kind = random.nextInt(100);
+        if(kind < 30) {
+        	line = pick(random, UNARY_COMMANDS) + " " + number(random);
+        }
+        else if(kind < 65) {
+        	line = number(random) + " " + pick(random, BINARY_COMMANDS) + " " + number(random);
+        }
+        else if(kind < 72) {
+        	line = random.nextInt(4) + " / " + (random.nextBoolean() ? "0" : "-0");
+        }
+        else if(kind < 82) {
+        	line = random.nextBoolean() ? pick(random, UNARY_COMMANDS) + " " + pick(random, BAD_NUMBERS)
+        			: pick(random, BAD_NUMBERS) + " " + pick(random, BINARY_COMMANDS) + " " + number(random);
+        }
+        else if(kind < 90) {
+        	line = random.nextBoolean() ? pick(random, BAD_COMMANDS) + " " + number(random)
+        			: number(random) + " " + pick(random, BAD_COMMANDS) + " " + number(random);
+        }
+        else if(kind < 97) {
+        	StringBuilder tokens = new StringBuilder(number(random));
+        	for(int i = random.nextInt(5); i >= 0; i--) {
+        		tokens.append(' ').append(random.nextBoolean() ? number(random) : pick(random, BINARY_COMMANDS));
+        	}
+        	line = tokens.toString();
+        }
+        else {
+        	line = random.nextBoolean() ? "quit" : "";
+        }
+
+        int damage = random.nextInt(20);
+        if(damage == 0 || line.isEmpty()) {
+        	int at = random.nextInt(line.length() + 1);
+        	line = line.substring(0, at) + " " + line.substring(at);
+        }
+        else if(damage == 1) {
+        	int at = random.nextInt(line.length());
+        	line = line.substring(0, at) + (char) (' ' + random.nextInt(95)) + line.substring(at + 1);
+        }
+        return line;
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @return A Token that Integer.parseInt accepts: a number of random magnitude, an edge value, or an unusual
+     * spelling of one (a + sign, leading zeros, or non-ASCII digits).
+     */
+    private static String number(SplittableRandom random)
+    {
+        switch(random.nextInt(10))
+        {
+        case 0:
+        	return Integer.toString(EDGE_NUMBERS[random.nextInt(EDGE_NUMBERS.length)]);
+        case 1:
+        	return "+" + random.nextInt(1000);
+        case 2:
+        	return "-00" + random.nextInt(1000);
+        case 3:
+        	// Arabic-Indic and fullwidth digits, which Character.digit accepts:
+        	return random.nextBoolean() ? "\u0661\u0662" : "-\uFF13";
+        default:
+        	return Integer.toString(random.nextInt() >> random.nextInt(32));
+        }
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param choices The values to choose from.
+     * @return One of the values, chosen uniformly.
+     */
+    private static String pick(SplittableRandom random, String[] choices)
+    {
+        return choices[random.nextInt(choices.length)];
+    }
+
+    /**
+     * The reference model: the answer the original calculator gives for a line, computed with String.split,
+     * Integer.parseInt and exceptions, independently of Calculator.
+     *
+     * @param line The line.
+     * @return The answer parseAndExecute must give.
+     */
+    static String reference(String line)
+    {
+        String[] tokens = line.split(" ");
+        try {
+        	switch(tokens.length)
+        	{
+        	case 1:
+        		if(tokens[0].equals("quit")) {
+        			return "quit";
+        		}
+        		return "Calculator Exception, message is: Illegal Command";
+        	case 2:
+        		int operand = Integer.parseInt(tokens[1]);
+        		switch(tokens[0])
+        		{
+        		case "negate":
+        			return "The result is: " + (operand * -1);
+        		case "halve":
+        			return "The result is: " + (operand / 2);
+        		default:
+        			return "Calculator Exception, message is: Illegal Command";
+        		}
+        	case 3:
+        		int a = Integer.parseInt(tokens[0]);
+        		int b = Integer.parseInt(tokens[2]);
+        		switch(tokens[1])
+        		{
+        		case "+":
+        			return "The result is: " + (a + b);
+        		case "-":
+        			return "The result is: " + (a - b);
+        		case "/":
+        			return "The result is: " + (a / b);
+        		default:
+        			return "Calculator Exception, message is: Illegal Command";
+        		}
+        	default:
+        		return "Calculator Exception, message is: Illegal Token Length";
+        	}
+        }
+        catch(NumberFormatException e) {
+        	return "Input number cannot be parsed to an int. Please try again.";
+        }
+        catch(ArithmeticException e) {
+        	return "Attempted to divide by 0. Please try again.";
+        }
+    }
+}
@@ -1,3 +1,11 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
 /**
  * Test class for calculator class
  *
@@ -306,4 +314,296 @@ public class CalculatorTest {
         String result = Calculator.parseAndExecute("yes yes yes yes");
         Assert.assertEquals("Calculator Exception, message is: Illegal Token Length", result);
     }
+
+    /**
+     * Test correct evaluation of command (input of "quit"):
+     */
+    public void evaluateTestValidQuit() throws AssertException
+    {
+        CalculatorResult result = Calculator.evaluate("quit");
+        Assert.assertTrue(result.isQuit());
+        Assert.assertFalse(result.isError());
+    }
+
+    /**
+     * Test incorrect evaluation of command (each error is reported as its own status):
+     */
+    public void evaluateTestErrors() throws AssertException
+    {
+        Assert.assertEquals(CalculatorStatus.NUMBER_FORMAT, Calculator.evaluate("negate foo").getStatus());
+        Assert.assertEquals(CalculatorStatus.ILLEGAL_COMMAND, Calculator.evaluate("foo 6").getStatus());
+        Assert.assertEquals(CalculatorStatus.ILLEGAL_TOKEN_LENGTH, Calculator.evaluate("1 2 3 4").getStatus());
+        Assert.assertTrue(Calculator.evaluate("foo").isError());
+    }
+
+    /**
+     * Test correct evaluation of command (value results, including divide by zero):
+     */
+    public void evaluateTestValidCommand() throws AssertException
+    {
+        CalculatorResult result = Calculator.evaluate("halve 9");
+        Assert.assertEquals(CalculatorStatus.VALUE, result.getStatus());
+        Assert.assertEquals(4, result.getValue());
+
+        Calculator.evaluate(new StringBuilder("-7 / 2"), result);
+        Assert.assertEquals(-3, result.getValue());
+
+        Calculator.evaluate("5 / 0", result);
+        Assert.assertEquals(CalculatorStatus.DIVIDE_BY_ZERO, result.getStatus());
+    }
+
+    /**
+     * Test that the tokenizer finds the same Tokens as String.split(" "):
+     */
+    public void tokenizerTestMatchesSplit() throws AssertException
+    {
+        String[] inputs = {"", " ", "   ", "quit", "quit ", " quit", "negate 5", "negate  5", "5 + 3", "5 + 3  ",
+                "5  + 3", "1 2 3 4", "a b c d e f"};
+        CalculatorTokenizer tokenizer = new CalculatorTokenizer();
+        for (String input : inputs)
+        {
+            String[] expected = input.split(" ");
+            tokenizer.reset(input);
+            Assert.assertEquals(Math.min(expected.length, CalculatorTokenizer.MAX_TOKENS + 1), tokenizer.count());
+            for (int i = 0; i < Math.min(expected.length, CalculatorTokenizer.MAX_TOKENS); i++)
+            {
+                Assert.assertEquals(expected[i], tokenizer.token(i));
+            }
+        }
+    }
+
+    /**
+     * Test that the non-throwing int parser accepts and rejects exactly what Integer.parseInt does:
+     */
+    public void tokenizerTestParseIntMatchesParseInt() throws AssertException
+    {
+        String[] inputs = {"0", "7", "-7", "+7", "007", "-0", "2147483647", "2147483648", "-2147483648",
+                "-2147483649", "99999999999", "", "-", "+", "--1", "+-1", "1-", "foo", "1.5", "\u0661\u0662", "\uFF13"};
+        CalculatorTokenizer tokenizer = new CalculatorTokenizer();
+        for (String input : inputs)
+        {
+            long expected;
+            try
+            {
+                expected = Integer.parseInt(input);
+            }
+            catch (NumberFormatException e)
+            {
+                expected = CalculatorTokenizer.NOT_AN_INT;
+            }
+            tokenizer.reset(input);
+            Assert.assertEquals(Long.valueOf(expected), Long.valueOf(tokenizer.tryParseInt(0)));
+        }
+    }
+
+    /**
+     * Test that every status can be round-tripped through its numeric code:
+     */
+    public void statusTestCodes() throws AssertException
+    {
+        for (CalculatorStatus status : CalculatorStatus.values())
+        {
+            Assert.assertEquals(status, CalculatorStatus.fromCode(status.code()));
+        }
+    }
+
+    /**
+     * Test batch evaluation over an array, a list and a stream:
+     */
+    public void evaluateAllTestBatch() throws AssertException
+    {
+        String[] inputs = {"1 + 2", "negate 4", "5 / 0", "foo", "quit", "halve x"};
+        CalculatorStatus[] expected = {CalculatorStatus.VALUE, CalculatorStatus.VALUE, CalculatorStatus.DIVIDE_BY_ZERO,
+                CalculatorStatus.ILLEGAL_COMMAND, CalculatorStatus.QUIT, CalculatorStatus.NUMBER_FORMAT};
+        int[] values = new int[inputs.length];
+        byte[] statuses = new byte[inputs.length];
+
+        Assert.assertEquals(inputs.length, Calculator.evaluateAll(inputs, values, statuses));
+        Assert.assertEquals(3, values[0]);
+        Assert.assertEquals(-4, values[1]);
+        for (int i = 0; i < inputs.length; i++)
+        {
+            Assert.assertEquals(expected[i], CalculatorStatus.fromCode(statuses[i]));
+        }
+
+        values = new int[inputs.length];
+        Assert.assertEquals(inputs.length, Calculator.evaluateAll(Arrays.asList(inputs), values, statuses));
+        Assert.assertEquals(-4, values[1]);
+
+        values = new int[inputs.length];
+        Assert.assertEquals(inputs.length, Calculator.evaluateAll(Stream.of(inputs), values, statuses));
+        Assert.assertEquals(3, values[0]);
+    }
+
+    /**
+     * Test batch evaluation into output arrays that are too short:
+     */
+    public void evaluateAllTestCapacity() throws AssertException
+    {
+        try
+        {
+            Calculator.evaluateAll(Stream.of("1 + 1", "2 + 2"), new int[1], new byte[1]);
+            Assert.fail("Overflowing the output arrays did not throw an Exception");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    /**
+     * Test parallel batch evaluation keeps the outcomes in input order:
+     */
+    public void evaluateAllParallelTestOrder() throws AssertException
+    {
+        String[] inputs = new String[Calculator.PARALLEL_THRESHOLD * 4 + 3];
+        for (int i = 0; i < inputs.length; i++)
+        {
+            inputs[i] = (i % 7 == 0) ? i + " / 0" : i + " - 1";
+        }
+        int[] values = new int[inputs.length];
+        byte[] statuses = new byte[inputs.length];
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            Assert.assertEquals(inputs.length, Calculator.evaluateAllParallel(inputs, values, statuses, pool));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        for (int i = 0; i < inputs.length; i++)
+        {
+            if (i % 7 == 0)
+            {
+                Assert.assertEquals(CalculatorStatus.DIVIDE_BY_ZERO, CalculatorStatus.fromCode(statuses[i]));
+            }
+            else
+            {
+                Assert.assertEquals(i - 1, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Test that a computed value of Integer.MIN_VALUE is not mistaken for "quit":
+     */
+    public void parseAndExecuteTestMinValueIsNotQuit() throws AssertException
+    {
+        Assert.assertEquals("The result is: -2147483648", Calculator.parseAndExecute("negate -2147483648"));
+        Assert.assertEquals("The result is: -2147483648", Calculator.parseAndExecute("-2147483647 - 1"));
+    }
+
+    /**
+     * Test evaluation with long arithmetic:
+     */
+    public void evaluateTestLongArithmetic() throws AssertException
+    {
+        CalculatorResult result = Calculator.evaluate("2147483647 + 1", CalculatorArithmetic.LONG);
+        Assert.assertEquals(Long.valueOf(2147483648L), Long.valueOf(result.getLongValue()));
+        result = Calculator.evaluate("halve -9223372036854775807", CalculatorArithmetic.LONG);
+        Assert.assertEquals(Long.valueOf(-4611686018427387903L), Long.valueOf(result.getLongValue()));
+        Assert.assertEquals(CalculatorStatus.NUMBER_FORMAT,
+                Calculator.evaluate("9223372036854775808 - 1", CalculatorArithmetic.LONG).getStatus());
+        Assert.assertEquals("The result is: -9223372036854775808",
+                Calculator.parseAndExecute("9223372036854775807 + 1", CalculatorArithmetic.LONG));
+    }
+
+    /**
+     * Test evaluation with overflow-checked arithmetic:
+     */
+    public void evaluateTestExactArithmetic() throws AssertException
+    {
+        String[] overflows = {"2147483647 + 1", "-2147483648 - 1", "negate -2147483648", "-2147483648 / -1"};
+        for (String input : overflows)
+        {
+            Assert.assertEquals(CalculatorStatus.OVERFLOW,
+                    Calculator.evaluate(input, CalculatorArithmetic.INT_EXACT).getStatus());
+            Assert.assertEquals(CalculatorStatus.VALUE,
+                    Calculator.evaluate(input, CalculatorArithmetic.LONG_EXACT).getStatus());
+        }
+        Assert.assertEquals(CalculatorStatus.OVERFLOW,
+                Calculator.evaluate("9223372036854775807 + 1", CalculatorArithmetic.LONG_EXACT).getStatus());
+        Assert.assertEquals(CalculatorStatus.DIVIDE_BY_ZERO,
+                Calculator.evaluate("1 / 0", CalculatorArithmetic.INT_EXACT).getStatus());
+        Assert.assertEquals(CalculatorStatus.NUMBER_FORMAT,
+                Calculator.evaluate("2147483648 - 1", CalculatorArithmetic.INT_EXACT).getStatus());
+        Assert.assertEquals("Arithmetic overflow. Please try again.",
+                Calculator.parseAndExecute("2147483647 + 1", CalculatorArithmetic.INT_EXACT));
+        Assert.assertEquals("The result is: 7", Calculator.parseAndExecute("halve 15", CalculatorArithmetic.INT_EXACT));
+    }
+
+    /**
+     * Test that the non-throwing long parser accepts and rejects exactly what Long.parseLong does:
+     */
+    public void tokenizerTestParseLongMatchesParseLong() throws AssertException
+    {
+        String[] inputs = {"0", "-7", "+7", "9223372036854775807", "9223372036854775808", "-9223372036854775808",
+                "-9223372036854775809", "99999999999999999999", "", "-", "+", "1-", "\u0661\u0662"};
+        CalculatorTokenizer tokenizer = new CalculatorTokenizer();
+        for (String input : inputs)
+        {
+            tokenizer.reset(input);
+            try
+            {
+                long expected = Long.parseLong(input);
+                Assert.assertTrue(tokenizer.tryParseLong(0));
+                Assert.assertEquals(Long.valueOf(expected), Long.valueOf(tokenizer.parsedLong()));
+            }
+            catch (NumberFormatException e)
+            {
+                Assert.assertFalse(tokenizer.tryParseLong(0));
+            }
+        }
+    }
+
+    /**
+     * Test that commands are recognized by content, not by String identity:
+     */
+    public void calculateTestNonInternedCommands() throws AssertException
+    {
+        try
+        {
+            Assert.assertEquals(-5, Calculator.calculateTwoTokens(new String[] {new String("negate"), "5"}));
+            Assert.assertEquals(1, Calculator.calculateThreeTokens(new String[] {"3", new String("-"), "2"}));
+            Assert.assertEquals(Integer.MIN_VALUE, Calculator.execute(new String[] {new String("quit")}));
+        }
+        catch (Exception e)
+        {
+            Assert.fail("Legal expression threw an Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Test that an operator table finds every keyword, and nothing else, from a char range:
+     */
+    public void operatorTableTestLookup() throws AssertException
+    {
+        Map<String, Integer> operators = new LinkedHashMap<>();
+        String[] keywords = {"+", "-", "/", "*", "%", "negate", "halve", "double", "abs", "min", "max", "avg"};
+        for (int i = 0; i < keywords.length; i++)
+        {
+            operators.put(keywords[i], i);
+        }
+        OperatorTable<Integer> table = new OperatorTable<>(operators, new HashMap<>());
+        for (int i = 0; i < keywords.length; i++)
+        {
+            String input = "[" + keywords[i] + "]";
+            int slot = table.find(input, 1, input.length() - 1);
+            Assert.assertEquals(Integer.valueOf(i), table.operator(slot));
+        }
+        Assert.assertEquals(-1, table.find("negat", 0, 5));
+        Assert.assertEquals(-1, table.find("quit", 0, 4));
+        Assert.assertEquals(-1, table.find("", 0, 0));
+    }
+
+    /**
+     * Test that parseAndExecute agrees with the reference model on random valid and invalid lines:
+     */
+    public void parseAndExecuteTestRandomLines() throws AssertException
+    {
+        AtomicReference<String> mismatch = new AtomicReference<>();
+        long[] stats = CalculatorStressHarness.run(2019, 50000, mismatch);
+        Assert.assertEquals("null", String.valueOf(mismatch.get()));
+        Assert.assertEquals(0, (int) stats[0]);
+    }
 }
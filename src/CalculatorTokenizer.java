@@ -0,0 +1,277 @@
+/**
+ * A cursor-based tokenizer for calculator commands. Scans an input CharSequence in place and records the start and end
+ * offsets of its Tokens, so commands can be evaluated without allocating a String[] or a String per Token.
+ *
+ * Tokens are separated by single spaces, exactly as input.split(" ") separates them in parseAndExecute:
+ *  - Consecutive spaces produce empty Tokens ("5  + 3" has four Tokens, one of them empty).
+ *  - Trailing empty Tokens are dropped ("negate 5 " has two Tokens, " " has none).
+ *  - An input without any space is a single Token, even when it is empty.
+ *
+ * Only the offsets of the first three Tokens are recorded, since no command has more. The Token count saturates at
+ * four, which is enough to report an "Illegal Token Length".
+ *
+ * A tokenizer may be reused for any number of inputs by calling reset; it is not thread safe.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class CalculatorTokenizer
+{
+    /**
+     * The largest number of Tokens any command has. Inputs with more Tokens are only counted.
+     */
+    public static final int MAX_TOKENS = 3;
+
+    /**
+     * Returned by tryParseInt when a Token is not convertible to an int. Lies outside the int range, so it can never
+     * be confused with a parsed value.
+     */
+    public static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    /**
+     * The input currently being tokenized.
+     */
+    private CharSequence input;
+
+    /**
+     * The value parsed by the last successful call to tryParseLong.
+     */
+    private long parsedLong;
+
+    /**
+     * The number of Tokens in the input, saturated at MAX_TOKENS + 1.
+     */
+    private int count;
+
+    /**
+     * Offsets of the first three Tokens. Kept as plain fields rather than arrays so a short-lived tokenizer can be
+     * scalar-replaced by the JIT.
+     */
+    private int start0, end0, start1, end1, start2, end2;
+
+    /**
+     * Creates a tokenizer with no input. Call reset before reading Tokens.
+     */
+    public CalculatorTokenizer()
+    {
+        this.input = "";
+    }
+
+    /**
+     * Creates a tokenizer positioned on the given input.
+     *
+     * @param input The command to tokenize.
+     */
+    public CalculatorTokenizer(CharSequence input)
+    {
+        reset(input);
+    }
+
+    /**
+     * Tokenizes a new input, discarding the Tokens of the previous one.
+     *
+     * @param input The command to tokenize.
+     * @return This tokenizer.
+     */
+    public CalculatorTokenizer reset(CharSequence input)
+    {
+        this.input = input;
+        this.count = 0;
+
+        // Trailing spaces only produce trailing empty Tokens, which are dropped:
+        int end = input.length();
+        while(end > 0 && input.charAt(end - 1) == ' ') {
+        	end--;
+        }
+        if(end == 0) {
+        	// Either the input is empty (a single empty Token) or consists only of spaces (no Tokens at all):
+        	if(input.length() == 0) {
+        		record(0, 0);
+        	}
+        	return this;
+        }
+
+        int start = 0;
+        for(int i = 0; i < end; i++) {
+        	if(input.charAt(i) == ' ') {
+        		record(start, i);
+        		if(count > MAX_TOKENS) {
+        			return this;
+        		}
+        		start = i + 1;
+        	}
+        }
+        record(start, end);
+        return this;
+    }
+
+    /**
+     * Records the offsets of the next Token.
+     *
+     * @param start The offset of the first character of the Token.
+     * @param end The offset just past the last character of the Token.
+     */
+    private void record(int start, int end)
+    {
+        switch(count)
+        {
+        case 0:
+        	start0 = start;
+        	end0 = end;
+        	break;
+        case 1:
+        	start1 = start;
+        	end1 = end;
+        	break;
+        case 2:
+        	start2 = start;
+        	end2 = end;
+        	break;
+        default:
+        	break;
+        }
+        count++;
+    }
+
+    /**
+     * @return The input currently being tokenized.
+     */
+    public CharSequence input()
+    {
+        return input;
+    }
+
+    /**
+     * @return The number of Tokens in the input. Any input with more than MAX_TOKENS Tokens reports MAX_TOKENS + 1.
+     */
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @return The offset of the first character of the Token.
+     */
+    public int start(int index)
+    {
+        switch(index)
+        {
+        case 0:
+        	return start0;
+        case 1:
+        	return start1;
+        case 2:
+        	return start2;
+        default:
+        	throw new IndexOutOfBoundsException("Token index: " + index);
+        }
+    }
+
+    /**
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @return The offset just past the last character of the Token.
+     */
+    public int end(int index)
+    {
+        switch(index)
+        {
+        case 0:
+        	return end0;
+        case 1:
+        	return end1;
+        case 2:
+        	return end2;
+        default:
+        	throw new IndexOutOfBoundsException("Token index: " + index);
+        }
+    }
+
+    /**
+     * Checks whether a Token is exactly the given keyword, without creating a substring.
+     *
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @param keyword The keyword to compare against, e.g. "negate".
+     * @return true if the Token has the same characters as the keyword.
+     */
+    public boolean tokenEquals(int index, String keyword)
+    {
+        int start = start(index);
+        int length = end(index) - start;
+        if(length != keyword.length()) {
+        	return false;
+        }
+        for(int i = 0; i < length; i++) {
+        	if(input.charAt(start + i) != keyword.charAt(i)) {
+        		return false;
+        	}
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a Token is exactly the given single character, e.g. an operator such as '+'.
+     *
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @param c The character to compare against.
+     * @return true if the Token consists of just that character.
+     */
+    public boolean tokenIs(int index, char c)
+    {
+        int start = start(index);
+        return end(index) - start == 1 && input.charAt(start) == c;
+    }
+
+    /**
+     * Parses a Token as a signed decimal int directly from the input, reporting failure through the return value rather
+     * than by throwing. Accepts and rejects exactly the same Tokens as Integer.parseInt: an optional '+' or '-' sign
+     * followed by at least one decimal digit (as defined by Character.digit), with a value in the int range.
+     * See OperandParser. Tokens of an AsciiCharSequence are parsed straight from its bytes.
+     *
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @return The int value of the Token, or NOT_AN_INT if the Token is not convertible to an int.
+     */
+    public long tryParseInt(int index)
+    {
+        if(input instanceof AsciiCharSequence) {
+        	return ((AsciiCharSequence) input).parseInt(start(index), end(index));
+        }
+        return OperandParser.parseInt(input, start(index), end(index));
+    }
+
+    /**
+     * Parses a Token as a signed decimal long directly from the input, reporting failure through the return value
+     * rather than by throwing. Accepts and rejects exactly the same Tokens as Long.parseLong. The parsed value is
+     * available from parsedLong(). See OperandParser.parseNegatedLong.
+     *
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @return true if the Token is convertible to a long.
+     */
+    public boolean tryParseLong(int index)
+    {
+        int start = start(index);
+        long negated = OperandParser.parseNegatedLong(input, start, end(index));
+        if(negated == OperandParser.NOT_A_LONG) {
+        	return false;
+        }
+        parsedLong = input.charAt(start) == '-' ? negated : -negated;
+        return true;
+    }
+
+    /**
+     * @return The value parsed by the last successful call to tryParseLong.
+     */
+    public long parsedLong()
+    {
+        return parsedLong;
+    }
+
+    /**
+     * @param index The index of the Token, 0 to MAX_TOKENS - 1.
+     * @return The Token as a new String. Allocates; intended for messages and debugging only.
+     */
+    public String token(int index)
+    {
+        return input.subSequence(start(index), end(index)).toString();
+    }
+}
@@ -0,0 +1,20 @@
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A two-Token calculator command such as "negate 5", supplied by a plugin. Implementations are discovered with
+ * ServiceLoader when the calculator starts: put the implementing class on the class path, with a public no-argument
+ * constructor, and list its name in a file named META-INF/services/CalculatorUnaryOperator.
+ *
+ * Discovered commands are frozen into the same immutable dispatch table as the built-in ones, so a plugin command
+ * costs no more to look up than "negate". A plugin cannot replace a built-in command or "quit".
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public interface CalculatorUnaryOperator extends IntUnaryOperator
+{
+    /**
+     * @return The command Token, e.g. "abs". Must not be empty or contain a space.
+     */
+    String keyword();
+}
@@ -1,17 +1,37 @@
 import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * THIS CLASS IS COMPLETED FOR YOU. DO NOT EDIT IT!
- *
  * Lab 5
  *
  * Read lines from the user's keyboard.  For each line, attempt to interpret
  * it as a Calculator Command and print out the result (or an error message).
+ * The interactive loop is the lab's original; the other modes below are chosen by the first argument.
  *
  * Lines are read as long as the user has not requested that the program be quit
  *
+ * Run as "java Driver --batch commands.txt [results.txt]" to evaluate a file of commands non-interactively instead:
+ * no prompts are printed and the results are written to the results file, or standard out if none is given. See
+ * FileEvaluator. Run as "java Driver --script commands.txt [results.txt]" for the same output from a script that
+ * repeats its commands: each distinct command is evaluated only once. See ScriptEvaluator.
+ *
+ * Run as "java Driver --pipe [lines]" (e.g. "cat commands.txt | java Driver --pipe") to read the commands in pipeline
+ * mode: no prompts are printed, input is read in large chunks and evaluated as bytes without creating a String per
+ * line (see BytePipeline), and results are buffered and only flushed at the end of the input, on "quit", or every so
+ * many lines. With no arguments the commands are always read interactively, with prompts, as before.
+ *
+ * Run as "java Driver --sessions a.txt b.txt ..." to evaluate several command files concurrently, each as its own
+ * session writing to "a.txt.out" and so on, or as "java Driver --listen [port]" to serve each connection to a local
+ * port as its own session. See SessionDriver.
+ *
  * @author Stephen
  * @version 2019-02-13
  */
@@ -19,11 +39,65 @@ import java.io.InputStreamReader;
 public class Driver {
 
     /**
-     * @param args Not used
+     * The size of the input and output buffers in pipeline mode.
+     */
+    private static final int PIPELINE_BUFFER = 1 << 16;
+
+    /**
+     * The default number of result lines between flushes in pipeline mode.
+     */
+    private static final int PIPELINE_FLUSH_LINES = 4096;
+
+    /**
+     * The ways Driver can run, chosen by its first argument.
+     */
+    enum Mode
+    {
+        INTERACTIVE, PIPE, BATCH, SCRIPT, SESSIONS, LISTEN
+    }
+
+    /**
+     * @param args Empty (or "--interactive") to read commands interactively, "--pipe" and an optional number of lines
+     * between flushes to read commands in pipeline mode, "--batch", a command file and an optional result file to
+     * evaluate a file of commands, "--script", a command file and an optional result file to evaluate a file of
+     * repeated commands, "--sessions" and command files to evaluate several files concurrently, or "--listen" and an
+     * optional port to serve sessions over a local socket.
      * @throws IOException If there is an IO error
      */
     public static void main(String[] args) throws IOException {
 
+        switch(mode(args))
+        {
+        case BATCH:
+            runBatch(args);
+            return;
+        case SCRIPT:
+            runScript(args);
+            return;
+        case SESSIONS:
+            List<Path> inputs = new ArrayList<>();
+            for(int i = 1; i < args.length; i++)
+            {
+                inputs.add(Paths.get(args[i]));
+            }
+            SessionDriver.runFiles(inputs);
+            return;
+        case LISTEN:
+            int port = listenPort(args);
+            if(port < 0)
+            {
+                System.err.println("Usage: java Driver --listen [<port, 0 to 65535>]");
+                return;
+            }
+            SessionDriver.listen(port);
+            return;
+        case PIPE:
+            runPipeline(args);
+            return;
+        default:
+            break;
+        }
+
         // Open standard in for input
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
 
@@ -47,4 +121,136 @@ public class Driver {
         // Close out the buffered reader
         br.close();
     }
+
+    /**
+     * Chooses how to run from the arguments alone. Anything that is not one of the mode arguments, including no
+     * arguments at all, runs interactively, whatever standard in and standard out are connected to.
+     *
+     * @param args The arguments of main.
+     * @return The mode to run in.
+     */
+    static Mode mode(String[] args) {
+        if(args.length == 0)
+        {
+            return Mode.INTERACTIVE;
+        }
+        switch(args[0])
+        {
+        case "--pipe":
+            return Mode.PIPE;
+        case "--batch":
+            return Mode.BATCH;
+        case "--script":
+            return Mode.SCRIPT;
+        case "--sessions":
+            return Mode.SESSIONS;
+        case "--listen":
+            return Mode.LISTEN;
+        default:
+            return Mode.INTERACTIVE;
+        }
+    }
+
+    /**
+     * Evaluates a file of commands without prompts, as requested by the "--batch" argument.
+     *
+     * @param args "--batch", the command file and optionally the result file.
+     * @throws IOException If either file cannot be accessed
+     */
+    private static void runBatch(String[] args) throws IOException {
+        if(args.length == 2)
+        {
+            FileEvaluator.evaluate(Paths.get(args[1]));
+        }
+        else if(args.length == 3)
+        {
+            FileEvaluator.evaluate(Paths.get(args[1]), Paths.get(args[2]));
+        }
+        else
+        {
+            System.err.println("Usage: java Driver --batch <command file> [<result file>]");
+        }
+    }
+
+    /**
+     * Evaluates a file of commands as one script, folding repeated commands, as requested by the "--script" argument.
+     *
+     * @param args "--script", the command file and optionally the result file.
+     * @throws IOException If either file cannot be accessed
+     */
+    private static void runScript(String[] args) throws IOException {
+        if(args.length == 2)
+        {
+            ScriptEvaluator.evaluate(Paths.get(args[1]));
+        }
+        else if(args.length == 3)
+        {
+            ScriptEvaluator.evaluate(Paths.get(args[1]), Paths.get(args[2]));
+        }
+        else
+        {
+            System.err.println("Usage: java Driver --script <command file> [<result file>]");
+        }
+    }
+
+    /**
+     * Reads commands from standard in without prompts, as requested by the "--pipe" argument.
+     *
+     * @param args "--pipe" and optionally the number of result lines between flushes.
+     * @throws IOException If there is an IO error
+     */
+    private static void runPipeline(String[] args) throws IOException {
+        int flushLines = flushLines(args);
+        if(flushLines < 0)
+        {
+            System.err.println("Usage: java Driver --pipe [<lines between flushes>]");
+            return;
+        }
+
+        try(FileInputStream in = new FileInputStream(FileDescriptor.in))
+        {
+            new BytePipeline(new FileOutputStream(FileDescriptor.out).getChannel(), PIPELINE_BUFFER, flushLines)
+                    .run(in.getChannel());
+        }
+    }
+
+    /**
+     * @param args "--pipe" and optionally the number of result lines between flushes.
+     * @return The number of result lines between flushes, 0 to flush only when the buffer is full, or -1 if the
+     * arguments are not valid.
+     */
+    static int flushLines(String[] args) {
+        if(args.length == 1)
+        {
+            return PIPELINE_FLUSH_LINES;
+        }
+        if(args.length > 2)
+        {
+            return -1;
+        }
+        try
+        {
+            return Math.max(Integer.parseInt(args[1]), -1);
+        }
+        catch(NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * @param args "--listen" and optionally the port to listen on.
+     * @return The port to listen on, or -1 if the arguments are not valid.
+     */
+    static int listenPort(String[] args) {
+        if(args.length == 1)
+        {
+            return CalculatorServer.DEFAULT_PORT;
+        }
+        if(args.length > 2)
+        {
+            return -1;
+        }
+        return CalculatorServer.parsePort(args[1]);
+    }
 }
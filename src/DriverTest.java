@@ -0,0 +1,53 @@
+/**
+ * Test class for the Driver class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class DriverTest {
+
+    /**
+     * Test that only the mode arguments leave interactive mode, so that running with no arguments prompts as before
+     * wherever standard in and standard out are connected:
+     */
+    public void modeTestArguments() throws Exception
+    {
+        Assert.assertEquals(Driver.Mode.INTERACTIVE, Driver.mode(new String[0]));
+        Assert.assertEquals(Driver.Mode.INTERACTIVE, Driver.mode(new String[] {"--interactive"}));
+        Assert.assertEquals(Driver.Mode.INTERACTIVE, Driver.mode(new String[] {"commands.txt"}));
+        Assert.assertEquals(Driver.Mode.PIPE, Driver.mode(new String[] {"--pipe"}));
+        Assert.assertEquals(Driver.Mode.PIPE, Driver.mode(new String[] {"--pipe", "10"}));
+        Assert.assertEquals(Driver.Mode.BATCH, Driver.mode(new String[] {"--batch", "commands.txt"}));
+        Assert.assertEquals(Driver.Mode.SCRIPT, Driver.mode(new String[] {"--script", "commands.txt"}));
+        Assert.assertEquals(Driver.Mode.SESSIONS, Driver.mode(new String[] {"--sessions", "a.txt", "b.txt"}));
+        Assert.assertEquals(Driver.Mode.LISTEN, Driver.mode(new String[] {"--listen"}));
+    }
+
+    /**
+     * Test that the pipeline flush interval is read from its argument, and that a bad one is reported rather than
+     * thrown:
+     */
+    public void flushLinesTestArguments() throws Exception
+    {
+        Assert.assertEquals(4096, Driver.flushLines(new String[] {"--pipe"}));
+        Assert.assertEquals(10, Driver.flushLines(new String[] {"--pipe", "10"}));
+        Assert.assertEquals(0, Driver.flushLines(new String[] {"--pipe", "0"}));
+        Assert.assertEquals(-1, Driver.flushLines(new String[] {"--pipe", "ten"}));
+        Assert.assertEquals(-1, Driver.flushLines(new String[] {"--pipe", "-5"}));
+        Assert.assertEquals(-1, Driver.flushLines(new String[] {"--pipe", "10", "20"}));
+    }
+
+    /**
+     * Test that the listen port is read from its argument, and that a bad one is reported rather than thrown:
+     */
+    public void listenPortTestArguments() throws Exception
+    {
+        Assert.assertEquals(CalculatorServer.DEFAULT_PORT, Driver.listenPort(new String[] {"--listen"}));
+        Assert.assertEquals(0, Driver.listenPort(new String[] {"--listen", "0"}));
+        Assert.assertEquals(65535, Driver.listenPort(new String[] {"--listen", "65535"}));
+        Assert.assertEquals(-1, Driver.listenPort(new String[] {"--listen", "65536"}));
+        Assert.assertEquals(-1, Driver.listenPort(new String[] {"--listen", "-1"}));
+        Assert.assertEquals(-1, Driver.listenPort(new String[] {"--listen", "port"}));
+        Assert.assertEquals(-1, Driver.listenPort(new String[] {"--listen", "5005", "5006"}));
+    }
+}
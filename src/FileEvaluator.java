@@ -0,0 +1,269 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Non-interactive evaluator for a file of calculator commands, one command per line. Produces the same output lines as
+ * Driver does interactively, minus the prompts, and stops at the first "quit" command (or the end of the file).
+ *
+ * The input file is memory-mapped one window at a time and the output is collected in a single large buffer that is
+ * written to the output channel only when it fills up, so files of any size are evaluated in constant memory and with
+ * few system calls. Lines end with "\n", "\r" or "\r\n", like BufferedReader.readLine, and are decoded as UTF-8.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class FileEvaluator
+{
+    /**
+     * The default size of the window of the input file that is mapped at once. A line must fit within one window.
+     */
+    static final int MAP_WINDOW = 64 << 20;
+
+    /**
+     * The size of the output buffer.
+     */
+    static final int OUTPUT_BUFFER = 1 << 20;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CalculatorTokenizer Tokens = new CalculatorTokenizer();
+    private final CalculatorResult result = new CalculatorResult();
+    private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER);
+    private CharBuffer line = CharBuffer.allocate(256);
+    private final WritableByteChannel out;
+    private final CalculatorResultStore store;
+    private final int mapWindow;
+    private long count;
+
+    /**
+     * Evaluates a file of commands and writes the results to standard out.
+     *
+     * @param input The file of commands.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the file cannot be read or standard out cannot be written.
+     */
+    public static long evaluate(Path input) throws IOException
+    {
+        return evaluate(input, new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    /**
+     * Evaluates a file of commands and writes the results to another file, replacing its contents.
+     *
+     * @param input The file of commands.
+     * @param output The file to write the results to.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static long evaluate(Path input, Path output) throws IOException
+    {
+        try(FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        		StandardOpenOption.TRUNCATE_EXISTING)) {
+        	return evaluate(input, out);
+        }
+    }
+
+    /**
+     * Evaluates a file of commands and writes the results to a channel. The channel is not closed.
+     *
+     * @param input The file of commands.
+     * @param out The channel to write the results to.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the file cannot be read or the channel cannot be written.
+     */
+    public static long evaluate(Path input, WritableByteChannel out) throws IOException
+    {
+        return evaluate(input, out, MAP_WINDOW);
+    }
+
+    /**
+     * Evaluates a file of commands and appends the typed results to an off-heap result store instead of formatting
+     * them, so that a run of any size keeps a flat heap. The "quit" line, if there is one, is not stored. The store is
+     * not closed.
+     *
+     * @param input The file of commands.
+     * @param store The store to append the results to.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the file cannot be read or the store cannot be written.
+     */
+    public static long evaluate(Path input, CalculatorResultStore store) throws IOException
+    {
+        try(FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+        	return new FileEvaluator(null, store, MAP_WINDOW).run(in);
+        }
+    }
+
+    /**
+     * Evaluates a file of commands, mapping windows of the given size, and writes the results to a channel.
+     *
+     * @param input The file of commands.
+     * @param out The channel to write the results to.
+     * @param mapWindow The size of the window of the input file that is mapped at once.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the file cannot be read or the channel cannot be written.
+     */
+    static long evaluate(Path input, WritableByteChannel out, int mapWindow) throws IOException
+    {
+        try(FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+        	return new FileEvaluator(out, null, mapWindow).run(in);
+        }
+    }
+
+    /**
+     * @param out The channel to write the results to, or null if they are stored.
+     * @param store The store to append the results to, or null if they are written.
+     * @param mapWindow The size of the window of the input file that is mapped at once.
+     */
+    private FileEvaluator(WritableByteChannel out, CalculatorResultStore store, int mapWindow)
+    {
+        this.out = out;
+        this.store = store;
+        this.mapWindow = mapWindow;
+    }
+
+    /**
+     * Maps the input one window at a time and evaluates its lines. A line that is cut off by the end of a window is
+     * evaluated from the start of the next window instead. So is a line ending in a "\r" that is the last byte of the
+     * window, in case a "\n" follows, unless the line starts the window and so could not fit in the next one either:
+     * then it is evaluated at once, and a "\n" that starts the next window is skipped.
+     *
+     * @param in The input file.
+     * @return The number of lines evaluated.
+     * @throws IOException If the file cannot be read or the output cannot be written.
+     */
+    private long run(FileChannel in) throws IOException
+    {
+        long size = in.size();
+        long position = 0;
+        boolean quit = false;
+        boolean skipNewline = false;
+        while(position < size && !quit) {
+        	long windowSize = Math.min(mapWindow, size - position);
+        	boolean last = position + windowSize == size;
+        	MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+        	int lineStart = 0;
+        	int limit = window.limit();
+        	if(skipNewline && window.get(0) == '\n') {
+        		lineStart = 1; // The second half of the "\r\n" that ended the previous window.
+        	}
+        	skipNewline = false;
+        	for(int i = lineStart; i < limit && !quit; i++) {
+        		byte b = window.get(i);
+        		if(b != '\n' && b != '\r') {
+        			continue;
+        		}
+        		if(b == '\r' && i + 1 == limit && !last) {
+        			if(lineStart > 0) {
+        				break; // Might be the first half of a "\r\n" split across windows.
+        			}
+        			skipNewline = true;
+        		}
+        		quit = evaluateLine(window, lineStart, i);
+        		if(b == '\r' && i + 1 < limit && window.get(i + 1) == '\n') {
+        			i++;
+        		}
+        		lineStart = i + 1;
+        	}
+        	if(last && !quit && lineStart < limit) {
+        		// The final line has no line terminator:
+        		quit = evaluateLine(window, lineStart, limit);
+        		lineStart = limit;
+        	}
+        	if(lineStart == 0 && !last && !quit) {
+        		throw new IOException("Line longer than " + mapWindow + " bytes at offset " + position);
+        	}
+        	position += lineStart;
+        }
+        flush();
+        return count;
+    }
+
+    /**
+     * Decodes and evaluates one line of the input and appends its result to the output.
+     *
+     * @param window The mapped window holding the line.
+     * @param start The offset of the first byte of the line in the window.
+     * @param end The offset just past the last byte of the line in the window.
+     * @return true if the line was "quit"; nothing is written for it.
+     * @throws IOException If the output cannot be written.
+     */
+    private boolean evaluateLine(MappedByteBuffer window, int start, int end) throws IOException
+    {
+        count++;
+        window.limit(end).position(start);
+        decode(window);
+        window.limit(window.capacity());
+
+        Calculator.evaluate(Tokens.reset(line), result);
+        if(result.isQuit()) {
+        	return true;
+        }
+        if(store != null) {
+        	store.append(result);
+        	return false;
+        }
+        ensureRoom(CalculatorFormatter.MAX_LINE_LENGTH);
+        CalculatorFormatter.writeLine(result, output);
+        return false;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer into the reusable line buffer, growing it if the line does not fit.
+     *
+     * @param bytes The bytes of one line.
+     */
+    private void decode(ByteBuffer bytes)
+    {
+        int start = bytes.position();
+        while(true) {
+        	line.clear();
+        	decoder.reset();
+        	if(!decoder.decode(bytes, line, true).isOverflow() && !decoder.flush(line).isOverflow()) {
+        		break;
+        	}
+        	bytes.position(start);
+        	line = CharBuffer.allocate(line.capacity() * 2);
+        }
+        line.flip();
+    }
+
+    /**
+     * Makes sure the output buffer has room for the given number of bytes, writing it out if it does not.
+     *
+     * @param length The number of bytes about to be appended.
+     * @throws IOException If the output cannot be written.
+     */
+    private void ensureRoom(int length) throws IOException
+    {
+        if(output.remaining() < length) {
+        	flush();
+        }
+    }
+
+    /**
+     * Writes the contents of the output buffer to the output channel.
+     *
+     * @throws IOException If the output cannot be written.
+     */
+    private void flush() throws IOException
+    {
+        output.flip();
+        while(output.hasRemaining()) {
+        	out.write(output);
+        }
+        output.clear();
+    }
+}
@@ -0,0 +1,89 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Test class for the FileEvaluator class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class FileEvaluatorTest {
+
+    /**
+     * Test that a file of commands produces the same lines as parseAndExecute, and stops at quit:
+     */
+    public void evaluateTestMatchesParseAndExecute() throws Exception
+    {
+        String[] lines = {"negate 5", "1 + 2", "foo", "5 / 0", "halve x", "", "1 2 3 4", "7 - 9", "quit", "1 + 1"};
+        Path input = Files.createTempFile("commands", ".txt");
+        try
+        {
+            Files.write(input, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Assert.assertEquals(9, (int) FileEvaluator.evaluate(input, Channels.newChannel(output)));
+
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 8; i++)
+            {
+                expected.append(Calculator.parseAndExecute(lines[i])).append(System.lineSeparator());
+            }
+            Assert.assertEquals(expected.toString(), output.toString("US-ASCII"));
+        }
+        finally
+        {
+            Files.delete(input);
+        }
+    }
+
+    /**
+     * Test that lines cut off by the end of a mapped window (including "\r\n" pairs) are evaluated whole:
+     */
+    public void evaluateTestSmallWindows() throws Exception
+    {
+        String commands = "1 + 2\r\nnegate 10\r\n100 / 7\rhalve 9\n12 - 20\r\n";
+        Path input = Files.createTempFile("commands", ".txt");
+        try
+        {
+            Files.write(input, commands.getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            FileEvaluator.evaluate(input, Channels.newChannel(expected));
+            for (int window = 11; window < 20; window++)
+            {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                Assert.assertEquals(5, (int) FileEvaluator.evaluate(input, Channels.newChannel(output), window));
+                Assert.assertEquals(expected.toString("US-ASCII"), output.toString("US-ASCII"));
+            }
+        }
+        finally
+        {
+            Files.delete(input);
+        }
+    }
+
+    /**
+     * Test that a line that fills a whole mapped window up to its "\r" is evaluated, and that a "\n" starting the next
+     * window completes that "\r\n" rather than ending an empty line:
+     */
+    public void evaluateTestCarriageReturnAtWindowEnd() throws Exception
+    {
+        // With a window of 9 bytes, "negate 5\r" and "halve 10\r" each fill one.
+        String commands = "negate 5\r\nhalve 10\rnegate 3\n1 + 2";
+        Path input = Files.createTempFile("commands", ".txt");
+        try
+        {
+            Files.write(input, commands.getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            FileEvaluator.evaluate(input, Channels.newChannel(expected));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Assert.assertEquals(4, (int) FileEvaluator.evaluate(input, Channels.newChannel(output), 9));
+            Assert.assertEquals(expected.toString("US-ASCII"), output.toString("US-ASCII"));
+        }
+        finally
+        {
+            Files.delete(input);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test method that changes global state, such as the result cache installed in Calculator, and so must not
+ * run at the same time as other tests. TestRunner's parallel mode runs these tests one at a time, after all the
+ * others have finished.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Isolated
+{
+}
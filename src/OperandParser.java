@@ -0,0 +1,276 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fast parsers for the int operands of calculator commands, over a range of chars or of bytes. They accept exactly
+ * the strings Integer.parseInt accepts (an optional sign, then one or more decimal digits, any number of them leading
+ * zeros, within the int range), but report failure by returning CalculatorTokenizer.NOT_AN_INT instead of throwing
+ * a NumberFormatException.
+ *
+ * Operands are nearly always 1 to 10 ASCII digits. The char parser checks and accumulates up to 9 of them with no
+ * per-digit branches, since 9 digits cannot overflow an int. The byte parser, used for lines evaluated in place in a
+ * ByteBuffer through an AsciiCharSequence, loads 8 digits at once as a long and validates and converts them with a few
+ * SWAR (SIMD within a register) multiplies. Longer operands and non-ASCII digits take a general loop.
+ *
+ * The operands of the LONG arithmetic modes are parsed by parseNegatedLong, which accepts what Long.parseLong accepts.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+final class OperandParser
+{
+    private static final VarHandle BUFFER_LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Returned by parseNegatedLong when a range is not a long. Positive, so it is never a negated magnitude.
+     */
+    static final long NOT_A_LONG = 1;
+
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long SIXES = 0x0606060606060606L;
+
+    /**
+     * Not instantiable.
+     */
+    private OperandParser()
+    {
+    }
+
+    /**
+     * Parses a range of chars as a decimal int, accepting exactly what Integer.parseInt accepts, including non-ASCII
+     * Unicode digits.
+     *
+     * @param input The chars.
+     * @param start The index of the first char of the operand.
+     * @param end The index after the last char of the operand.
+     * @return The int value, or CalculatorTokenizer.NOT_AN_INT if the range is not an int.
+     */
+    static long parseInt(CharSequence input, int start, int end)
+    {
+        int i = start;
+        if(i >= end) {
+        	return CalculatorTokenizer.NOT_AN_INT;
+        }
+        char first = input.charAt(i);
+        boolean negative = first == '-';
+        if(negative || first == '+') {
+        	if(++i == end) {
+        		return CalculatorTokenizer.NOT_AN_INT; // A lone sign is not a number.
+        	}
+        }
+
+        int digits = i;
+        if(end - i <= 9) {
+        	// Up to 9 digits cannot overflow. A char outside '0'..'9' makes digit or 9 - digit negative, which is
+        	// collected in bad and checked once at the end.
+        	int value = 0;
+        	int bad = 0;
+        	for(; i < end; i++) {
+        		int digit = input.charAt(i) - '0';
+        		bad |= digit | (9 - digit);
+        		value = value * 10 + digit;
+        	}
+        	if(bad >= 0) {
+        		return negative ? -value : value;
+        	}
+        }
+        return parseGeneral(input, digits, end, negative);
+    }
+
+    /**
+     * The general loop: any number of digits, overflow checked at every digit, Unicode digits allowed.
+     *
+     * @param input The chars.
+     * @param i The index of the first digit.
+     * @param end The index after the last digit.
+     * @param negative true if the operand had a minus sign.
+     * @return The int value, or CalculatorTokenizer.NOT_AN_INT if the range is not an int.
+     */
+    private static long parseGeneral(CharSequence input, int i, int end, boolean negative)
+    {
+        // The int range allows one more on the negative side:
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long magnitude = 0;
+        for(; i < end; i++) {
+        	char c = input.charAt(i);
+        	int digit = (c >= '0' && c <= '9') ? c - '0' : Character.digit(c, 10);
+        	if(digit < 0) {
+        		return CalculatorTokenizer.NOT_AN_INT;
+        	}
+        	magnitude = magnitude * 10 + digit;
+        	if(magnitude > limit) {
+        		return CalculatorTokenizer.NOT_AN_INT;
+        	}
+        }
+        return negative ? -magnitude : magnitude;
+    }
+
+    /**
+     * Parses a range of chars as a decimal long, accepting exactly what Long.parseLong accepts, including non-ASCII
+     * Unicode digits. Every long is a possible value, so the magnitude is accumulated and returned negated, which has
+     * room for that of Long.MIN_VALUE, and the caller applies the sign: the value is the result itself if the range
+     * starts with '-', and its negation otherwise.
+     *
+     * @param input The chars.
+     * @param start The index of the first char of the operand.
+     * @param end The index after the last char of the operand.
+     * @return The negated magnitude of the value, 0 or less, or NOT_A_LONG if the range is not a long.
+     */
+    static long parseNegatedLong(CharSequence input, int start, int end)
+    {
+        int i = start;
+        if(i >= end) {
+        	return NOT_A_LONG;
+        }
+        char first = input.charAt(i);
+        boolean negative = first == '-';
+        if(negative || first == '+') {
+        	if(++i == end) {
+        		return NOT_A_LONG;
+        	}
+        }
+
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long value = 0;
+        for(; i < end; i++) {
+        	char c = input.charAt(i);
+        	int digit = (c >= '0' && c <= '9') ? c - '0' : Character.digit(c, 10);
+        	if(digit < 0 || value < multiplyLimit) {
+        		return NOT_A_LONG;
+        	}
+        	value *= 10;
+        	if(value < limit + digit) {
+        		return NOT_A_LONG;
+        	}
+        	value -= digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a range of ASCII bytes of a buffer as a decimal int. Accepts what Integer.parseInt accepts for ASCII
+     * strings; any byte outside ASCII is rejected, so input that may hold non-ASCII digits must be decoded and parsed
+     * as chars. The range is given in absolute indexes within the limit of the buffer; its position is not used, and
+     * neither is changed.
+     *
+     * @param buffer The bytes.
+     * @param start The index of the first byte of the operand.
+     * @param end The index after the last byte of the operand.
+     * @return The int value, or CalculatorTokenizer.NOT_AN_INT if the range is not an int.
+     */
+    static long parseInt(ByteBuffer buffer, int start, int end)
+    {
+        int i = start;
+        if(i >= end) {
+        	return CalculatorTokenizer.NOT_AN_INT;
+        }
+        byte first = buffer.get(i);
+        boolean negative = first == '-';
+        if(negative || first == '+') {
+        	if(++i == end) {
+        		return CalculatorTokenizer.NOT_AN_INT;
+        	}
+        }
+        int length = end - i;
+        if(length > 10) {
+        	return parseGeneral(buffer, i, end, negative);
+        }
+        int head = Math.min(length, 8);
+        long word = i + 8 <= buffer.limit() ? (long) BUFFER_LONGS.get(buffer, i) : load(buffer, i, head);
+        return finish(buffer, i, end, negative, word, head);
+    }
+
+    /**
+     * Converts the first head digits with SWAR, then up to 2 more one at a time.
+     *
+     * @param buffer The bytes.
+     * @param i The index of the first digit.
+     * @param end The index after the last digit; at most 10 digits.
+     * @param negative true if the operand had a minus sign.
+     * @param word The 8 bytes from i, little-endian; only the low head bytes are used.
+     * @param head The number of digits in word, at most 8.
+     * @return The int value, or CalculatorTokenizer.NOT_AN_INT if the range is not an int.
+     */
+    private static long finish(ByteBuffer buffer, int i, int end, boolean negative, long word, int head)
+    {
+        long mask = head == 8 ? -1L : (1L << (head << 3)) - 1;
+        // Every byte of the head must be 0x30..0x39: high nibble 3, and still 3 after adding 6.
+        if(((word & HIGH_NIBBLES & mask) ^ (ZEROS & mask)) != 0
+        		|| (((word + SIXES) & HIGH_NIBBLES & mask) ^ (ZEROS & mask)) != 0) {
+        	return CalculatorTokenizer.NOT_AN_INT;
+        }
+        long magnitude = eightDigits(((word - ZEROS) & mask) << ((8 - head) << 3));
+        for(i += head; i < end; i++) {
+        	int digit = buffer.get(i) - '0';
+        	if(digit < 0 || digit > 9) {
+        		return CalculatorTokenizer.NOT_AN_INT;
+        	}
+        	magnitude = magnitude * 10 + digit;
+        }
+        if(magnitude > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+        	return CalculatorTokenizer.NOT_AN_INT;
+        }
+        return negative ? -magnitude : magnitude;
+    }
+
+    /**
+     * @param digits 8 digit values 0..9, one per byte, the most significant in the lowest byte.
+     * @return The number they spell.
+     */
+    static long eightDigits(long digits)
+    {
+        // Combine neighbouring digits into 2-digit numbers, then pairs of those into 4-digit numbers, and multiply the
+        // two 4-digit numbers into place in the high half.
+        digits = digits * 10 + (digits >>> 8);
+        return (((digits & 0x000000FF000000FFL) * (100 + (1000000L << 32)))
+                + (((digits >>> 16) & 0x000000FF000000FFL) * (1 + (10000L << 32)))) >>> 32;
+    }
+
+    /**
+     * Assembles up to 8 bytes into a little-endian long without reading past the limit of the buffer.
+     *
+     * @param buffer The bytes.
+     * @param i The index of the first byte.
+     * @param count The number of bytes to load.
+     * @return The bytes, the first in the lowest byte.
+     */
+    private static long load(ByteBuffer buffer, int i, int count)
+    {
+        long word = 0;
+        for(int k = count - 1; k >= 0; k--) {
+        	word = (word << 8) | (buffer.get(i + k) & 0xFF);
+        }
+        return word;
+    }
+
+    /**
+     * The general byte loop for operands of more than 10 digits, which are ints only with leading zeros.
+     *
+     * @param buffer The bytes.
+     * @param i The index of the first digit.
+     * @param end The index after the last digit.
+     * @param negative true if the operand had a minus sign.
+     * @return The int value, or CalculatorTokenizer.NOT_AN_INT if the range is not an int.
+     */
+    private static long parseGeneral(ByteBuffer buffer, int i, int end, boolean negative)
+    {
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long magnitude = 0;
+        for(; i < end; i++) {
+        	int digit = buffer.get(i) - '0';
+        	if(digit < 0 || digit > 9) {
+        		return CalculatorTokenizer.NOT_AN_INT;
+        	}
+        	magnitude = magnitude * 10 + digit;
+        	if(magnitude > limit) {
+        		return CalculatorTokenizer.NOT_AN_INT;
+        	}
+        }
+        return negative ? -magnitude : magnitude;
+    }
+}
@@ -0,0 +1,64 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test class for the OperandParser class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class OperandParserTest {
+
+    /**
+     * Test that the operand parser accepts and rejects exactly what Integer.parseInt does, on chars and on bytes:
+     */
+    public void operandParserTestMatchesParseInt() throws AssertException
+    {
+        List<String> operands = new ArrayList<>(Arrays.asList("", "+", "-", "0", "-0", "+7", "007", "12345678",
+                "123456789", "1234567890", "2147483647", "2147483648", "-2147483648", "-2147483649",
+                "00000000000002147483647", "99999999999", "1a", "a1", "1 2", "--1", "/1", ":1", "9:", "\u0661\u0662",
+                "-\uFF13", "12345678\u0661"));
+        Random random = new Random(22);
+        for (int i = 0; i < 2000; i++)
+        {
+            String number = Integer.toString(random.nextInt() >> random.nextInt(32));
+            operands.add(number);
+            char[] damaged = number.toCharArray();
+            damaged[random.nextInt(damaged.length)] = (char) random.nextInt(128);
+            operands.add(new String(damaged));
+        }
+        for (String operand : operands)
+        {
+            long expected;
+            try
+            {
+                expected = Integer.parseInt(operand);
+            }
+            catch (NumberFormatException e)
+            {
+                expected = CalculatorTokenizer.NOT_AN_INT;
+            }
+            Assert.assertTrue(expected == OperandParser.parseInt(" " + operand + " ", 1, operand.length() + 1));
+
+            if (StandardCharsets.US_ASCII.newEncoder().canEncode(operand))
+            {
+                byte[] bytes = operand.getBytes(StandardCharsets.US_ASCII);
+                Assert.assertTrue(expected == OperandParser.parseInt(ByteBuffer.wrap(bytes), 0, bytes.length));
+                byte[] padded = (operand + "          ").getBytes(StandardCharsets.US_ASCII);
+                Assert.assertTrue(expected == OperandParser.parseInt(ByteBuffer.wrap(padded), 0, bytes.length));
+                // As the tokenizer parses an operand of a line held in a byte buffer:
+                byte[] line = ("negate " + operand).getBytes(StandardCharsets.US_ASCII);
+                CalculatorTokenizer tokens = new CalculatorTokenizer(
+                        new AsciiCharSequence().wrap(ByteBuffer.wrap(line), 0, line.length));
+                if (tokens.count() == 2 && operand.indexOf(' ') < 0)
+                {
+                    Assert.assertTrue(expected == tokens.tryParseInt(1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.Map;
+
+/**
+ * An immutable lookup table from command keywords to operators, built once and then used on every evaluated line.
+ *
+ * The table is a perfect hash: when it is built, a hash multiplier and table size are chosen so that every keyword
+ * lands in its own slot. A lookup therefore hashes the Token once, straight from the input's char range, and compares
+ * it against at most one keyword, no matter how many operators are registered.
+ *
+ * Each slot also carries an opcode, so evaluators that need to know which built-in operation an operator is (e.g. to
+ * check a divisor for zero, or to compute it with long arithmetic) can switch on it instead of comparing strings.
+ *
+ * @param <T> The type of operator stored in the table, e.g. IntUnaryOperator.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+final class OperatorTable<T>
+{
+    /**
+     * The largest table that is tried before giving up on finding a perfect hash.
+     */
+    private static final int MAX_SIZE = 1 << 12;
+
+    private final String[] keywords;
+    private final Object[] operators;
+    private final byte[] opcodes;
+    private final int multiplier;
+    private final int mask;
+
+    /**
+     * Builds a table holding the given operators.
+     *
+     * @param operators The operators, keyed by keyword.
+     * @param opcodes The opcode of each keyword. Keywords without an opcode get 0.
+     * @throws IllegalArgumentException Thrown if a keyword is empty, or no perfect hash can be found for the keywords.
+     */
+    OperatorTable(Map<String, ? extends T> operators, Map<String, Byte> opcodes)
+    {
+        for(String keyword : operators.keySet()) {
+        	if(keyword.isEmpty()) {
+        		throw new IllegalArgumentException("Empty operator keyword");
+        	}
+        }
+
+        // Find the smallest table, and a multiplier for it, that gives every keyword its own slot:
+        int smallest = 2;
+        while(smallest < operators.size() * 2) {
+        	smallest *= 2;
+        }
+        for(int size = smallest; size <= MAX_SIZE; size *= 2) {
+        	for(int multiplier = 31; multiplier < 31 + 64; multiplier += 2) {
+        		String[] slots = place(operators.keySet(), multiplier, size - 1);
+        		if(slots != null) {
+        			this.keywords = slots;
+        			this.multiplier = multiplier;
+        			this.mask = size - 1;
+        			this.operators = new Object[size];
+        			this.opcodes = new byte[size];
+        			for(int i = 0; i < size; i++) {
+        				if(slots[i] != null) {
+        					this.operators[i] = operators.get(slots[i]);
+        					Byte opcode = opcodes.get(slots[i]);
+        					this.opcodes[i] = opcode == null ? 0 : opcode;
+        				}
+        			}
+        			return;
+        		}
+        	}
+        }
+        throw new IllegalArgumentException("No perfect hash for the operator keywords " + operators.keySet());
+    }
+
+    /**
+     * Tries to place every keyword in its own slot.
+     *
+     * @param keywords The keywords to place.
+     * @param multiplier The hash multiplier to try.
+     * @param mask The table size minus one.
+     * @return The keyword of each slot, or null if two keywords share a slot.
+     */
+    private static String[] place(Iterable<String> keywords, int multiplier, int mask)
+    {
+        String[] slots = new String[mask + 1];
+        for(String keyword : keywords) {
+        	int slot = hash(keyword, 0, keyword.length(), multiplier) & mask;
+        	if(slots[slot] != null) {
+        		return null;
+        	}
+        	slots[slot] = keyword;
+        }
+        return slots;
+    }
+
+    /**
+     * @param input The characters to hash.
+     * @param start The offset of the first character (inclusive).
+     * @param end The offset of the last character (exclusive).
+     * @param multiplier The hash multiplier.
+     * @return A hash of the characters.
+     */
+    private static int hash(CharSequence input, int start, int end, int multiplier)
+    {
+        int h = 0;
+        for(int i = start; i < end; i++) {
+        	h = h * multiplier + input.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Looks up the slot of a keyword given as a char range, without creating a substring.
+     *
+     * @param input The characters holding the keyword.
+     * @param start The offset of the first character (inclusive).
+     * @param end The offset of the last character (exclusive).
+     * @return The slot of the keyword, or -1 if no operator has that keyword.
+     */
+    int find(CharSequence input, int start, int end)
+    {
+        int slot = hash(input, start, end, multiplier) & mask;
+        String keyword = keywords[slot];
+        if(keyword == null || keyword.length() != end - start) {
+        	return -1;
+        }
+        for(int i = 0; i < keyword.length(); i++) {
+        	if(keyword.charAt(i) != input.charAt(start + i)) {
+        		return -1;
+        	}
+        }
+        return slot;
+    }
+
+    /**
+     * Looks up the slot of a keyword given as a Token.
+     *
+     * @param Tokens The tokenized input.
+     * @param index The index of the Token holding the keyword.
+     * @return The slot of the keyword, or -1 if no operator has that keyword.
+     */
+    int find(CalculatorTokenizer Tokens, int index)
+    {
+        return find(Tokens.input(), Tokens.start(index), Tokens.end(index));
+    }
+
+    /**
+     * @param slot A slot returned by find.
+     * @return The operator in the slot.
+     */
+    @SuppressWarnings("unchecked")
+    T operator(int slot)
+    {
+        return (T) operators[slot];
+    }
+
+    /**
+     * @param slot A slot returned by find.
+     * @return The opcode of the operator in the slot.
+     */
+    int opcode(int slot)
+    {
+        return opcodes[slot];
+    }
+
+    /**
+     * @return The number of slots in the table. Every slot returned by find is less than this.
+     */
+    int capacity()
+    {
+        return keywords.length;
+    }
+
+    /**
+     * @param slot A slot of the table.
+     * @return The keyword in the slot, or null if the slot is empty.
+     */
+    String keyword(int slot)
+    {
+        return keywords[slot];
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluator for whole command scripts that repeat the same commands many times. The script is read up to its first
+ * "quit" before anything is evaluated, and identical lines are folded together: each distinct line is evaluated once
+ * (in parallel when there are many), and its result line is formatted once, as bytes. The output is then produced by
+ * writing the stored result of each line in the original order. Nothing after the first "quit" is read or kept.
+ *
+ * Every command is a constant expression, so evaluating a line once gives the result of all its occurrences, and
+ * the output is byte for byte what FileEvaluator or the interactive Driver prints for the same file. The cost grows
+ * with the number of distinct lines rather than the number of lines.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public final class ScriptEvaluator
+{
+    /**
+     * The size of the output buffer.
+     */
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
+    /**
+     * Not instantiable.
+     */
+    private ScriptEvaluator()
+    {
+    }
+
+    /**
+     * Evaluates a script and writes the results to standard out.
+     *
+     * @param script The script, one command per line, in UTF-8.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the script cannot be read or standard out cannot be written.
+     */
+    public static long evaluate(Path script) throws IOException
+    {
+        OutputStream out = new FileOutputStream(FileDescriptor.out);
+        return evaluate(script, out);
+    }
+
+    /**
+     * Evaluates a script and writes the results to another file, replacing its contents.
+     *
+     * @param script The script, one command per line, in UTF-8.
+     * @param output The file to write the results to.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static long evaluate(Path script, Path output) throws IOException
+    {
+        try(OutputStream out = Files.newOutputStream(output)) {
+        	return evaluate(script, out);
+        }
+    }
+
+    /**
+     * Evaluates a script and writes the results to a stream. The stream is flushed but not closed. Bytes that are not
+     * valid UTF-8 are decoded as the replacement character, as FileEvaluator decodes them, so such a line is reported
+     * as a command that cannot be parsed rather than failing the whole script.
+     *
+     * @param script The script, one command per line, in UTF-8.
+     * @param out The stream to write the results to.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the script cannot be read or the stream cannot be written.
+     */
+    public static long evaluate(Path script, OutputStream out) throws IOException
+    {
+        try(BufferedReader in = new BufferedReader(new InputStreamReader(Files.newInputStream(script),
+        		StandardCharsets.UTF_8.newDecoder()
+        				.onMalformedInput(CodingErrorAction.REPLACE)
+        				.onUnmappableCharacter(CodingErrorAction.REPLACE)))) {
+        	return evaluate(in, out);
+        }
+    }
+
+    /**
+     * Evaluates the lines of a reader as one script and writes the results to a stream. The reader is read up to the
+     * first "quit" line, or its end, before anything is written; the lines after "quit" are left unread. The stream is
+     * flushed but not closed.
+     *
+     * @param in The script, one command per line.
+     * @param out The stream to write the results to.
+     * @return The number of lines evaluated, including the "quit" line if there is one.
+     * @throws IOException If the script cannot be read or the stream cannot be written.
+     */
+    static long evaluate(BufferedReader in, OutputStream out) throws IOException
+    {
+        // Fold identical lines: ids[i] is the index of line i among the distinct lines.
+        Map<String, Integer> distinctIds = new HashMap<>();
+        List<String> distinct = new ArrayList<>();
+        int[] ids = new int[1024];
+        int lines = 0;
+        boolean quit = false;
+        CalculatorTokenizer Tokens = new CalculatorTokenizer();
+        String line;
+        while((line = in.readLine()) != null) {
+        	Integer id = distinctIds.get(line);
+        	if(id == null) {
+        		// Only a new line can be the first "quit", recognized as Calculator.evaluate recognizes it:
+        		if(Tokens.reset(line).count() == 1 && Tokens.tokenEquals(0, "quit")) {
+        			quit = true;
+        			break;
+        		}
+        		id = distinct.size();
+        		distinctIds.put(line, id);
+        		distinct.add(line);
+        	}
+        	if(lines == ids.length) {
+        		ids = Arrays.copyOf(ids, lines * 2);
+        	}
+        	ids[lines++] = id;
+        }
+
+        // Evaluate each distinct line once, and format its result line once:
+        int size = distinct.size();
+        int[] values = new int[size];
+        byte[] statuses = new byte[size];
+        Calculator.evaluateAllParallel(distinct.toArray(new CharSequence[size]), values, statuses);
+        byte[][] results = new byte[size][];
+        CalculatorResult result = new CalculatorResult();
+        byte[] buffer = new byte[CalculatorFormatter.MAX_LINE_LENGTH];
+        for(int i = 0; i < size; i++) {
+        	CalculatorStatus status = CalculatorStatus.fromCode(statuses[i]);
+        	if(status == CalculatorStatus.VALUE) {
+        		result.setValue(values[i]);
+        	}
+        	else {
+        		result.setStatus(status);
+        	}
+        	results[i] = Arrays.copyOf(buffer, CalculatorFormatter.writeLine(result, buffer, 0));
+        }
+
+        // Fan the results back out in the original order:
+        OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER);
+        for(int i = 0; i < lines; i++) {
+        	buffered.write(results[ids[i]]);
+        }
+        buffered.flush();
+        return quit ? lines + 1 : lines;
+    }
+}
@@ -0,0 +1,82 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Test class for the ScriptEvaluator class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class ScriptEvaluatorTest {
+
+    /**
+     * Test that a script of repeated commands produces the same lines as parseAndExecute and FileEvaluator, stops at
+     * the first quit, and reports a line holding invalid UTF-8 as FileEvaluator does:
+     */
+    public void scriptTestFoldsRepeatedCommands() throws Exception
+    {
+        String[] commands = {"negate 5", "1 + 2", "foo", "5 / 0", "1 + 2", "negate 5", "foo", "7 - 9", "1 + 2"};
+        StringBuilder script = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int repeat = 0; repeat < 50; repeat++)
+        {
+            for (String command : commands)
+            {
+                script.append(command).append('\n');
+                expected.append(Calculator.parseAndExecute(command)).append(System.lineSeparator());
+            }
+        }
+        script.append("quit\n1 + 1\nquit\n");
+        Path input = Files.createTempFile("script", ".txt");
+        try
+        {
+            Files.write(input, script.toString().getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Assert.assertEquals(50 * commands.length + 1, (int) ScriptEvaluator.evaluate(input, output));
+            Assert.assertEquals(expected.toString(), output.toString("US-ASCII"));
+
+            ByteArrayOutputStream batch = new ByteArrayOutputStream();
+            FileEvaluator.evaluate(input, Channels.newChannel(batch));
+            Assert.assertEquals(batch.toString("US-ASCII"), output.toString("US-ASCII"));
+
+            // A byte that is not valid UTF-8 makes its line unparseable, as it does for FileEvaluator:
+            Files.write(input, new byte[] {'1', ' ', '+', ' ', '2', '\n', (byte) 0xff, ' ', '+', ' ', '1', '\n'});
+            output.reset();
+            Assert.assertEquals(2, (int) ScriptEvaluator.evaluate(input, output));
+            Assert.assertEquals(Calculator.parseAndExecute("1 + 2") + System.lineSeparator()
+                    + CalculatorStatus.NUMBER_FORMAT.getMessage() + System.lineSeparator(),
+                    output.toString("US-ASCII"));
+            batch.reset();
+            FileEvaluator.evaluate(input, Channels.newChannel(batch));
+            Assert.assertEquals(batch.toString("US-ASCII"), output.toString("US-ASCII"));
+        }
+        finally
+        {
+            Files.delete(input);
+        }
+    }
+
+    /**
+     * Test that reading stops at the first quit, so the lines after it are neither evaluated nor stored:
+     */
+    public void scriptTestStopsReadingAtQuit() throws Exception
+    {
+        BufferedReader in = new BufferedReader(new StringReader("1 + 2\n1 + 2\nquit \n1 + 1\nfoo\n"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Assert.assertEquals(3, (int) ScriptEvaluator.evaluate(in, output));
+        Assert.assertEquals(Calculator.parseAndExecute("1 + 2") + System.lineSeparator()
+                + Calculator.parseAndExecute("1 + 2") + System.lineSeparator(), output.toString("US-ASCII"));
+        Assert.assertEquals("1 + 1", in.readLine());
+
+        in = new BufferedReader(new StringReader("quit\n1 + 1\n"));
+        output.reset();
+        Assert.assertEquals(1, (int) ScriptEvaluator.evaluate(in, output));
+        Assert.assertEquals(0, output.size());
+        Assert.assertEquals("1 + 1", in.readLine());
+    }
+}
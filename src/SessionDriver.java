@@ -0,0 +1,261 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent Driver sessions at once, one thread per session. Each session is the plain blocking loop of
+ * Driver: read a line with BufferedReader.readLine, evaluate it, write the result to the session's own buffered writer,
+ * and stop at "quit" or the end of the input. Sessions are either files of commands or the connections of a local
+ * socket listener. Result files end their lines with the platform line separator, as Driver prints them; socket
+ * sessions end them with "\n", the separator of the line protocol CalculatorServer also serves. A socket session
+ * also ends, like "quit", at a line longer than CalculatorServer.MAX_LINE, so a client cannot grow a session's memory
+ * without bound by never ending a line.
+ *
+ * On a JVM with virtual threads (Java 21 and later) every session gets its own virtual thread, so tens of thousands of
+ * blocking sessions share a handful of carrier threads. On older JVMs, sessions run on a cached pool of platform
+ * threads instead; the sessions behave the same, only fewer can be open at once.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class SessionDriver
+{
+    /**
+     * The size of each session's input and output buffers.
+     */
+    private static final int SESSION_BUFFER = 8 << 10;
+
+    /**
+     * Not instantiable.
+     */
+    private SessionDriver()
+    {
+    }
+
+    /**
+     * Creates the executor sessions run on: one new virtual thread per session where the JVM supports it, otherwise a
+     * cached pool of daemon platform threads.
+     *
+     * @return The executor.
+     */
+    static ExecutorService newSessionExecutor()
+    {
+        try {
+        	// Looked up reflectively so the class still compiles and runs on JVMs without virtual threads.
+        	Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        	return (ExecutorService) factory.invoke(null);
+        }
+        catch(ReflectiveOperationException e) {
+        	return Executors.newCachedThreadPool(task -> {
+        		Thread thread = new Thread(task, "calculator-session");
+        		thread.setDaemon(true);
+        		return thread;
+        	});
+        }
+    }
+
+    /**
+     * Evaluates several files of commands concurrently, one session per file. The results of "name" are written to
+     * "name.out", in the same format Driver prints them. Waits for every session to finish. Bytes that are not valid
+     * UTF-8 are decoded as the replacement character, as FileEvaluator decodes them. A session that fails, e.g.
+     * because its file cannot be read, is reported on standard error and does not stop the others.
+     *
+     * @param inputs The files of commands.
+     * @return The number of lines each session read, in the order of the inputs, or -1 for a session that failed.
+     * @throws IOException If interrupted while waiting for the sessions.
+     */
+    public static long[] runFiles(List<Path> inputs) throws IOException
+    {
+        ExecutorService executor = newSessionExecutor();
+        try {
+        	List<Future<Long>> sessions = new ArrayList<>();
+        	for(Path input : inputs) {
+        		sessions.add(executor.submit(() -> {
+        			Path output = Paths.get(input + ".out");
+        			try(BufferedReader in = reader(Files.newInputStream(input));
+        					BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+        				return session(in, out, System.lineSeparator(), Integer.MAX_VALUE);
+        			}
+        		}));
+        	}
+
+        	long[] counts = new long[inputs.size()];
+        	for(int i = 0; i < counts.length; i++) {
+        		try {
+        			counts[i] = sessions.get(i).get();
+        		}
+        		catch(ExecutionException e) {
+        			System.err.println("Session " + inputs.get(i) + " failed: " + e.getCause());
+        			counts[i] = -1;
+        		}
+        	}
+        	return counts;
+        }
+        catch(InterruptedException e) {
+        	Thread.currentThread().interrupt();
+        	throw new IOException("Interrupted while waiting for sessions", e);
+        }
+        finally {
+        	executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Listens on a loopback port and serves every connection as its own session, until the listener is closed.
+     *
+     * @param listener The socket to accept connections on.
+     * @throws IOException If accepting fails for a reason other than the listener being closed.
+     */
+    public static void listen(ServerSocket listener) throws IOException
+    {
+        ExecutorService executor = newSessionExecutor();
+        try {
+        	while(!listener.isClosed()) {
+        		Socket socket;
+        		try {
+        			socket = listener.accept();
+        		}
+        		catch(IOException e) {
+        			if(listener.isClosed()) {
+        				break;
+        			}
+        			throw e;
+        		}
+        		executor.execute(() -> {
+        			try(Socket connection = socket;
+        					BufferedReader in = reader(connection.getInputStream());
+        					BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+        							connection.getOutputStream(), StandardCharsets.UTF_8), SESSION_BUFFER)) {
+        				session(in, out, CalculatorServer.PROTOCOL_LINE_SEPARATOR, CalculatorServer.MAX_LINE);
+        			}
+        			catch(IOException e) {
+        				// The client went away; only its own session is affected.
+        			}
+        		});
+        	}
+        }
+        finally {
+        	executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens a listener on the given loopback port and serves connections until the process is killed.
+     *
+     * @param port The port to listen on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void listen(int port) throws IOException
+    {
+        try(ServerSocket listener = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress())) {
+        	System.out.println("Listening for calculator sessions on port " + listener.getLocalPort());
+        	listen(listener);
+        }
+    }
+
+    /**
+     * @param in A session's input.
+     * @return A buffered reader that decodes it as UTF-8, replacing malformed bytes rather than failing on them.
+     */
+    private static BufferedReader reader(InputStream in)
+    {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)), SESSION_BUFFER);
+    }
+
+    /**
+     * Runs one session: the blocking Driver loop over a reader and a writer. The writer is flushed whenever the reader
+     * has no more input buffered, so a client that waits for each answer gets it at once, while a client that
+     * pipelines many lines gets their answers in few writes. A line longer than maxLine ends the session like "quit",
+     * as CalculatorServer.evaluateLine does: the lines before it are answered, and it and the lines after it are not.
+     *
+     * @param in The session's commands, one per line.
+     * @param out Receives the session's results, one per line.
+     * @param separator The line separator to end each result with.
+     * @param maxLine The longest line to evaluate, in chars, not counting its line terminator.
+     * @return The number of lines read, including the "quit" or over-long line if there is one.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    static long session(BufferedReader in, Writer out, String separator, int maxLine) throws IOException
+    {
+        CalculatorTokenizer Tokens = new CalculatorTokenizer();
+        CalculatorResult result = new CalculatorResult();
+        StringBuilder input = new StringBuilder();
+        StringBuilder line = new StringBuilder(CalculatorFormatter.MAX_LENGTH);
+        long count = 0;
+        int length;
+        while((length = readLine(in, input, maxLine)) >= 0) {
+        	count++;
+        	if(length > maxLine) {
+        		break;
+        	}
+        	Calculator.evaluate(Tokens.reset(input), result);
+        	if(result.isQuit()) {
+        		break;
+        	}
+        	line.setLength(0);
+        	out.append(CalculatorFormatter.append(result, line)).append(separator);
+        	if(!in.ready()) {
+        		out.flush();
+        	}
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Reads the next line into a reusable builder, ending lines as BufferedReader.readLine does: at "\n", "\r" or
+     * "\r\n", or at the end of the input. Unlike readLine, stops reading once the line is longer than maxLine, so the
+     * builder never holds more than maxLine + 1 chars.
+     *
+     * @param in The reader.
+     * @param line The builder to read the line into, replacing its contents.
+     * @param maxLine The longest line to read completely.
+     * @return The length of the line, more than maxLine if the line is longer (the rest of it is left unread), or -1
+     * at the end of the input.
+     * @throws IOException If the input cannot be read.
+     */
+    private static int readLine(BufferedReader in, StringBuilder line, int maxLine) throws IOException
+    {
+        line.setLength(0);
+        int c;
+        while((c = in.read()) >= 0) {
+        	if(c == '\n') {
+        		return line.length();
+        	}
+        	if(c == '\r') {
+        		// A "\n" right after the "\r" belongs to the same line terminator:
+        		in.mark(1);
+        		if(in.read() != '\n') {
+        			in.reset();
+        		}
+        		return line.length();
+        	}
+        	if(line.length() == maxLine) {
+        		return maxLine + 1;
+        	}
+        	line.append((char) c);
+        }
+        return line.length() > 0 ? line.length() : -1;
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Test class for the SessionDriver class
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+public class SessionDriverTest {
+
+    /**
+     * Test that every command file gets its own result file, in the format Driver prints, stopping at quit:
+     */
+    public void runFilesTestOutputPerFile() throws Exception
+    {
+        String[][] lines = {{"negate 5", "1 + 2", "quit", "1 + 1"}, {"5 / 0", "foo", "halve 9"}};
+        Path[] inputs = new Path[lines.length];
+        try
+        {
+            for (int i = 0; i < lines.length; i++)
+            {
+                inputs[i] = Files.createTempFile("session", ".txt");
+                Files.write(inputs[i], String.join("\n", lines[i]).getBytes(StandardCharsets.UTF_8));
+            }
+            long[] counts = SessionDriver.runFiles(Arrays.asList(inputs));
+            Assert.assertEquals(3, (int) counts[0]);
+            Assert.assertEquals(3, (int) counts[1]);
+
+            int[] answered = {2, 3};
+            for (int i = 0; i < lines.length; i++)
+            {
+                StringBuilder expected = new StringBuilder();
+                for (int j = 0; j < answered[i]; j++)
+                {
+                    expected.append(Calculator.parseAndExecute(lines[i][j])).append(System.lineSeparator());
+                }
+                Path output = Paths.get(inputs[i] + ".out");
+                Assert.assertEquals(expected.toString(), new String(Files.readAllBytes(output),
+                        StandardCharsets.UTF_8));
+            }
+        }
+        finally
+        {
+            for (Path input : inputs)
+            {
+                if (input != null)
+                {
+                    Files.deleteIfExists(input);
+                    Files.deleteIfExists(Paths.get(input + ".out"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that malformed UTF-8 in one file is evaluated as replacement characters, and that a file that cannot be read
+     * fails only its own session:
+     */
+    @Isolated
+    public void runFilesTestMalformedAndMissingInput() throws Exception
+    {
+        Path malformed = Files.createTempFile("session", ".txt");
+        Path missing = Paths.get(malformed + ".missing");
+        Path valid = Files.createTempFile("session", ".txt");
+        PrintStream err = System.err;
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        try
+        {
+            Files.write(malformed, new byte[] {'h', 'a', 'l', 'v', 'e', ' ', (byte) 0xC3, '\n', '1', ' ', '+', ' ',
+                    '1'});
+            Files.write(valid, "negate 5".getBytes(StandardCharsets.UTF_8));
+            System.setErr(new PrintStream(errors));
+            long[] counts = SessionDriver.runFiles(Arrays.asList(malformed, missing, valid));
+            System.setErr(err);
+
+            Assert.assertEquals(2, (int) counts[0]);
+            Assert.assertEquals(-1, (int) counts[1]);
+            Assert.assertEquals(1, (int) counts[2]);
+            Assert.assertEquals(Calculator.parseAndExecute("halve \uFFFD") + System.lineSeparator()
+                    + Calculator.parseAndExecute("1 + 1") + System.lineSeparator(),
+                    new String(Files.readAllBytes(Paths.get(malformed + ".out")), StandardCharsets.UTF_8));
+            Assert.assertEquals(Calculator.parseAndExecute("negate 5") + System.lineSeparator(),
+                    new String(Files.readAllBytes(Paths.get(valid + ".out")), StandardCharsets.UTF_8));
+            Assert.assertTrue(errors.toString().contains(missing.toString()));
+        }
+        finally
+        {
+            System.setErr(err);
+            for (Path input : new Path[] {malformed, missing, valid})
+            {
+                Files.deleteIfExists(input);
+                Files.deleteIfExists(Paths.get(input + ".out"));
+            }
+        }
+    }
+
+    /**
+     * Test a socket session: answers end with "\n" as in CalculatorServer, and quit ends the session:
+     */
+    public void listenTestRoundTrip() throws Exception
+    {
+        final ServerSocket listener = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    SessionDriver.listen(listener);
+                }
+                catch (IOException e)
+                {
+                    // The test fails on the missing answers.
+                }
+            }
+        }, "listen-test");
+        thread.start();
+        try
+        {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort()))
+            {
+                socket.setSoTimeout(10000);
+                socket.getOutputStream().write("1 + 2\r\nnegate 5\nquit\n1 + 1\n".getBytes(StandardCharsets.US_ASCII));
+                String answers = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                Assert.assertEquals("The result is: 3\nThe result is: -5\n", answers);
+            }
+        }
+        finally
+        {
+            listener.close();
+            thread.join();
+        }
+    }
+
+    /**
+     * Test that a socket session reads no line longer than CalculatorServer.MAX_LINE: such a line ends the session
+     * after the answers to the lines before it, as it does in CalculatorServer, even if it is never finished:
+     */
+    public void listenTestLineEnds() throws Exception
+    {
+        String longest = "x".repeat(CalculatorServer.MAX_LINE);
+        String[] inputs = {"1 + 2\r\nnegate 5", longest + "\r\n1 + 1\n", "1 + 1\n" + longest + "x\n2 + 2\n",
+                "1 + 1\n" + longest + "x"};
+        String[] expected = {"The result is: 3\nThe result is: -5\n",
+                "Calculator Exception, message is: Illegal Command\nThe result is: 2\n", "The result is: 2\n",
+                "The result is: 2\n"};
+        // The last session never closes its side: its unfinished line must end it once it is too long.
+        boolean[] closeOutput = {true, true, true, false};
+
+        final ServerSocket listener = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    SessionDriver.listen(listener);
+                }
+                catch (IOException e)
+                {
+                    // The test fails on the missing answers.
+                }
+            }
+        }, "listen-test");
+        thread.start();
+        try
+        {
+            for (int i = 0; i < inputs.length; i++)
+            {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort()))
+                {
+                    socket.setSoTimeout(10000);
+                    socket.getOutputStream().write(inputs[i].getBytes(StandardCharsets.US_ASCII));
+                    if (closeOutput[i])
+                    {
+                        socket.shutdownOutput();
+                    }
+                    String answers = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                    Assert.assertEquals(expected[i], answers);
+                }
+            }
+        }
+        finally
+        {
+            listener.close();
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The tests TestRunner runs, discovered once. Each test class is resolved a single time, and its constructor and
+ * every test method are bound into invokers generated with LambdaMetafactory, so running a test costs two plain
+ * interface calls rather than a reflective newInstance and Method.invoke. A plan can be run any number of times.
+ *
+ * @author agent
+ * @version 2026-10-18
+ */
+final class TestPlan
+{
+	/**
+	 * Calls one test method on an instance of its class.
+	 */
+	@FunctionalInterface
+	interface Invoker
+	{
+		/**
+		 * @param instance An instance of the test class.
+		 * @throws Throwable Whatever the test method throws.
+		 */
+		void invoke(Object instance) throws Throwable;
+	}
+
+	/**
+	 * One test method, ready to run.
+	 */
+	static final class TestCase
+	{
+		final TestClass testClass;
+		final String name;
+		final boolean isolated;
+		private final Invoker invoker;
+
+		/**
+		 * @param testClass The class the test belongs to.
+		 * @param name The name of the test method.
+		 * @param isolated true if the test is marked Isolated.
+		 * @param invoker The invoker of the test method.
+		 */
+		private TestCase(TestClass testClass, String name, boolean isolated, Invoker invoker)
+		{
+			this.testClass = testClass;
+			this.name = name;
+			this.isolated = isolated;
+			this.invoker = invoker;
+		}
+
+		/**
+		 * Runs the test on a fresh instance of its class.
+		 *
+		 * @return The exception the test failed with, or null if it passed.
+		 */
+		Throwable run()
+		{
+			try {
+				invoker.invoke(testClass.factory.get());
+				return null;
+			}
+			catch (Throwable e)
+			{
+				return e;
+			}
+		}
+	}
+
+	/**
+	 * One test class and its tests, in the order getDeclaredMethods reports them.
+	 */
+	static final class TestClass
+	{
+		final String name;
+		final List<TestCase> tests = new ArrayList<>();
+		private Supplier<Object> factory;
+		private Throwable error;
+
+		/**
+		 * @param name The name of the class.
+		 */
+		private TestClass(String name)
+		{
+			this.name = name;
+		}
+
+		/**
+		 * @return The exception that kept the class from being loaded or bound, or null if it is ready to run.
+		 */
+		Throwable error()
+		{
+			return error;
+		}
+	}
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	private final List<TestClass> classes;
+
+	/**
+	 * @param classNames The names of the test classes.
+	 */
+	private TestPlan(String[] classNames)
+	{
+		List<TestClass> list = new ArrayList<>();
+		for (String className : classNames)
+		{
+			TestClass testClass = new TestClass(className);
+			list.add(testClass);
+			try {
+				Class<?> type = Class.forName(className);
+				testClass.factory = factory(type);
+				for (Method mth : type.getDeclaredMethods())
+				{
+					// Skip the bodies of lambdas, which are not tests:
+					if (!mth.isSynthetic())
+					{
+						boolean isolated = mth.isAnnotationPresent(Isolated.class);
+						testClass.tests.add(new TestCase(testClass, mth.getName(), isolated, invoker(type, mth)));
+					}
+				}
+			}
+			catch (Throwable e)
+			{
+				testClass.tests.clear();
+				testClass.error = e;
+			}
+		}
+		classes = Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Discovers the tests of the given classes.
+	 *
+	 * @param classNames The names of the test classes.
+	 * @return The plan for running them.
+	 */
+	static TestPlan of(String[] classNames)
+	{
+		return new TestPlan(classNames);
+	}
+
+	/**
+	 * @return The test classes, in the order they were given.
+	 */
+	List<TestClass> classes()
+	{
+		return classes;
+	}
+
+	/**
+	 * @return The number of tests in the plan.
+	 */
+	int size()
+	{
+		int size = 0;
+		for (TestClass testClass : classes)
+		{
+			size += testClass.tests.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @param type A test class.
+	 * @return A supplier of new instances of the class, generated from its no-argument constructor.
+	 * @throws Throwable If the class has no accessible no-argument constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Supplier<Object> factory(Class<?> type) throws Throwable
+	{
+		MethodHandle constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+		CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+				MethodType.methodType(Object.class), constructor, MethodType.methodType(type));
+		return (Supplier<Object>) site.getTarget().invokeExact();
+	}
+
+	/**
+	 * @param type A test class.
+	 * @param mth A test method of the class.
+	 * @return An invoker of the method, generated with LambdaMetafactory; or, for a static method or one that is not
+	 * accessible to a generated class, one that calls its method handle.
+	 * @throws Throwable If the method is not accessible at all.
+	 */
+	private static Invoker invoker(Class<?> type, Method mth) throws Throwable
+	{
+		if (mth.getParameterCount() != 0)
+		{
+			// Like Method.invoke, fail the test rather than the whole class:
+			return instance -> {
+				throw new IllegalArgumentException("Test method " + mth.getName() + " takes arguments");
+			};
+		}
+		mth.setAccessible(true);
+		MethodHandle handle = LOOKUP.unreflect(mth);
+		if (Modifier.isStatic(mth.getModifiers()))
+		{
+			MethodHandle erased = MethodHandles.dropArguments(handle, 0, Object.class)
+					.asType(MethodType.methodType(void.class, Object.class));
+			return instance -> erased.invokeExact(instance);
+		}
+		if (Modifier.isPublic(mth.getModifiers()) && Modifier.isPublic(type.getModifiers()))
+		{
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "invoke", MethodType.methodType(Invoker.class),
+					MethodType.methodType(void.class, Object.class), handle,
+					MethodType.methodType(void.class, type));
+			return (Invoker) site.getTarget().invokeExact();
+		}
+		MethodHandle erased = handle.asType(MethodType.methodType(void.class, Object.class));
+		return instance -> erased.invokeExact(instance);
+	}
+}
@@ -1,10 +1,21 @@
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class to provided testing utility. Custom unit testing framework. Used in place
  * of Junit4 due to its incompatibility with Zylabs.
  *
+ * Run with "--parallel [threads]" to run the test methods on a thread pool, each on a fresh instance of its
+ * class, and report the time each test took. Tests marked Isolated run alone after the others. The results are
+ * printed in the same order as a serial run.
+ *
+ * Run with "--repeat N" (optionally with "--parallel") to run the suite N times and report the tests that failed in
+ * some runs but not others. Tests are discovered once into a TestPlan, which every run reuses.
+ *
  * @author Stephen
  * @version 2019-02-06
  */
@@ -18,93 +29,336 @@ public class TestRunner
 	 * THIS IS ONLY PART OF THIS CLASS THAT YOU SHOULD MODIFY.
 	 */
 	private static String[] testClasses = {
-			"CalculatorTest"
+			"CalculatorTest",
+			"FileEvaluatorTest",
+			"BytePipelineTest",
+			"DriverTest",
+			"CalculatorExpressionTest",
+			"CalculatorCacheTest",
+			"CalculatorFormatterTest",
+			"CalculatorServerTest",
+			"SessionDriverTest",
+			"CalculatorMetricsTest",
+			"CalculatorColumnsTest",
+			"CalculatorResultStoreTest",
+			"OperandParserTest",
+			"CalculatorOperatorsTest",
+			"ScriptEvaluatorTest"
 	};
 
 	/**
-	 * Main method. DO NOT MODIFY.
+	 * The number of slowest tests reported by a parallel run.
+	 */
+	private static final int SLOWEST_TESTS = 5;
+
+	/**
+	 * The tests of testClasses, discovered on first use.
+	 */
+	private static TestPlan plan;
+
+	/**
+	 * The outcome and duration of one run of a test.
+	 */
+	private static final class TestResult implements Runnable
+	{
+		private final TestPlan.TestCase test;
+		private Throwable error;
+		private long nanos;
+
+		/**
+		 * @param test The test to run.
+		 */
+		TestResult(TestPlan.TestCase test)
+		{
+			this.test = test;
+		}
+
+		/**
+		 * Runs the test on a fresh instance of its class and records how long that took.
+		 */
+		@Override
+		public void run()
+		{
+			long start = System.nanoTime();
+			error = test.run();
+			nanos = System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Main method. Runs every test serially unless "--parallel [threads]" or "--repeat N" is given.
 	 *
 	 * @param args Program args.
 	 */
 	public static void main(String[] args)
 	{
-		for (String className : testClasses)
+		int threads = 0;
+		int repeat = 0;
+		for (int i = 0; i < args.length; i++)
 		{
-			// Track if tests pass:
-			boolean allPassed = true;
-			try {
-				// Get an instance of the class from the name:
-				Object classInstance = Class.forName(className).newInstance();
-
-				// Get all methods declared (i.e. not inherited) from the class:
-				Method[] methods = Class.forName(className).getDeclaredMethods();
-
-				// Run all tests, assuming that there are no helper methods:
-				for (Method mth : methods)
-		        {
-					boolean passed = true;
-					Exception error = null;
-					// Try to execute the method:
-					try {
-			            mth.invoke(classInstance);
-					}
-			        catch(InvocationTargetException e)
-			        {
-			        	passed = false;
-			        	error = e;
-			        }
-					catch(IllegalAccessException e)
-					{
-			        	passed = false;
-			        	error = e;
-					}
-					catch(IllegalArgumentException e)
-					{
-			        	passed = false;
-			        	error = e;
-					}
+			if (args[i].equals("--parallel"))
+			{
+				threads = i + 1 < args.length && args[i + 1].matches("\\d+") ? Integer.parseInt(args[++i])
+						: Runtime.getRuntime().availableProcessors();
+			}
+			else if (args[i].equals("--repeat") && i + 1 < args.length)
+			{
+				repeat = Integer.parseInt(args[++i]);
+			}
+		}
 
-					// Report if test passed or not:
-					if (passed)
-					{
-						System.out.println(mth.getName() + " ---- passed");
-					}
-					else
+		if (repeat > 0)
+		{
+			runRepeated(repeat, threads);
+		}
+		else if (threads > 0)
+		{
+			runParallel(threads);
+		}
+		else
+		{
+			runSerial();
+		}
+	}
+
+	/**
+	 * @return The plan of the tests of testClasses, discovering them the first time.
+	 */
+	private static synchronized TestPlan plan()
+	{
+		if (plan == null)
+		{
+			plan = TestPlan.of(testClasses);
+		}
+		return plan;
+	}
+
+	/**
+	 * Runs every test of the plan once.
+	 *
+	 * @param threads The number of threads to run tests on, or 0 to run them one after another on this thread.
+	 * @return The results of each test class, in the order of the plan.
+	 */
+	private static List<List<TestResult>> execute(int threads)
+	{
+		List<List<TestResult>> classResults = new ArrayList<>();
+		List<TestResult> isolated = new ArrayList<>();
+		ExecutorService pool = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+		for (TestPlan.TestClass testClass : plan().classes())
+		{
+			List<TestResult> results = new ArrayList<>();
+			classResults.add(results);
+			for (TestPlan.TestCase test : testClass.tests)
+			{
+				TestResult result = new TestResult(test);
+				results.add(result);
+				if (pool == null)
+				{
+					result.run();
+				}
+				else if (test.isolated)
+				{
+					isolated.add(result);
+				}
+				else
+				{
+					pool.execute(result);
+				}
+			}
+		}
+		if (pool != null)
+		{
+			pool.shutdown();
+			boolean interrupted = false;
+			while (!pool.isTerminated())
+			{
+				try {
+					pool.awaitTermination(1, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+			{
+				Thread.currentThread().interrupt();
+			}
+			for (TestResult result : isolated)
+			{
+				result.run();
+			}
+		}
+		return classResults;
+	}
+
+	/**
+	 * Runs every test one after another and prints whether each test and each class passed, with the stack trace of
+	 * every failure.
+	 */
+	private static void runSerial()
+	{
+		report(execute(0), true);
+	}
+
+	/**
+	 * Runs the tests of every test class on a pool of threads, then prints the results in discovery order, the
+	 * slowest tests and a summary line. A failure is reported with its exception and the lines of the test class it
+	 * passed through, rather than a full stack trace.
+	 *
+	 * @param threads The number of threads to run tests on.
+	 */
+	private static void runParallel(int threads)
+	{
+		long start = System.nanoTime();
+		List<List<TestResult>> classResults = execute(threads);
+		long wallNanos = System.nanoTime() - start;
+		int failed = report(classResults, false);
+
+		List<TestResult> all = new ArrayList<>();
+		for (List<TestResult> results : classResults)
+		{
+			all.addAll(results);
+		}
+		all.sort(Comparator.comparingLong((TestResult result) -> result.nanos).reversed());
+		System.out.println("Slowest tests:");
+		long testNanos = 0;
+		for (int i = 0; i < all.size(); i++)
+		{
+			TestResult result = all.get(i);
+			testNanos += result.nanos;
+			if (i < SLOWEST_TESTS)
+			{
+				System.out.println(String.format("  %9.3f ms  %s.%s", result.nanos / 1e6,
+						result.test.testClass.name, result.test.name));
+			}
+		}
+		System.out.println(String.format("Tests: %d, passed: %d, failed: %d, time: %.3f ms on %d threads"
+				+ " (%.3f ms of test time)", all.size(), all.size() - failed, failed, wallNanos / 1e6, threads,
+				testNanos / 1e6));
+	}
+
+	/**
+	 * Runs the whole suite several times to find tests that fail only some of the time. Prints one line per run,
+	 * then every test that failed with the number of runs it failed in, and a summary line.
+	 *
+	 * @param repeat The number of times to run the suite.
+	 * @param threads The number of threads to run tests on, or 0 to run them serially.
+	 */
+	private static void runRepeated(int repeat, int threads)
+	{
+		int size = plan().size();
+		int[] failures = new int[size];
+		Throwable[] lastErrors = new Throwable[size];
+		TestPlan.TestCase[] tests = new TestPlan.TestCase[size];
+		long start = System.nanoTime();
+		for (int run = 1; run <= repeat; run++)
+		{
+			long runStart = System.nanoTime();
+			int failed = 0;
+			int index = 0;
+			for (List<TestResult> results : execute(threads))
+			{
+				for (TestResult result : results)
+				{
+					tests[index] = result.test;
+					if (result.error != null)
 					{
-						System.out.println(mth.getName() + " ---- failed");
-						error.printStackTrace(System.out);
-						System.out.println("\n");
-						allPassed = false;
+						failures[index]++;
+						lastErrors[index] = result.error;
+						failed++;
 					}
-		        }
+					index++;
+				}
 			}
-			catch (ClassNotFoundException e)
+			System.out.println(String.format("Run %d of %d: passed: %d, failed: %d, time: %.3f ms", run, repeat,
+					size - failed, failed, (System.nanoTime() - runStart) / 1e6));
+		}
+
+		int failing = 0;
+		int flaky = 0;
+		for (int i = 0; i < size; i++)
+		{
+			if (failures[i] > 0)
+			{
+				failing++;
+				boolean isFlaky = failures[i] < repeat;
+				if (isFlaky)
+				{
+					flaky++;
+				}
+				System.out.println(String.format("%s.%s ---- failed %d of %d runs%s: %s", tests[i].testClass.name,
+						tests[i].name, failures[i], repeat, isFlaky ? " (flaky)" : "", lastErrors[i]));
+			}
+		}
+		for (TestPlan.TestClass testClass : plan().classes())
+		{
+			if (testClass.error() != null)
+			{
+				System.out.println(testClass.name + " ---- failed: " + testClass.error());
+			}
+		}
+		System.out.println(String.format("Runs: %d, tests: %d, failing: %d, flaky: %d, time: %.3f ms", repeat, size,
+				failing, flaky, (System.nanoTime() - start) / 1e6));
+	}
+
+	/**
+	 * Prints whether each test and each class passed, in the order of the plan.
+	 *
+	 * @param classResults The results of each test class.
+	 * @param fullTraces true to print the full stack trace of each failure, false to print only its exception and
+	 * the lines of the test class it passed through.
+	 * @return The number of tests that failed.
+	 */
+	private static int report(List<List<TestResult>> classResults, boolean fullTraces)
+	{
+		int failed = 0;
+		List<TestPlan.TestClass> classes = plan().classes();
+		for (int i = 0; i < classes.size(); i++)
+		{
+			TestPlan.TestClass testClass = classes.get(i);
+			// Track if tests pass:
+			boolean allPassed = testClass.error() == null;
+			if (testClass.error() instanceof ClassNotFoundException)
 			{
 				String errorMessage = String.format("Could not find the class: %s, check the testClasses variable"
-						+ "and make sure the name matches exactly.", className);
+						+ "and make sure the name matches exactly.", testClass.name);
 				System.out.println(errorMessage);
-				allPassed = false;
 			}
-			catch (InstantiationException e)
+			else if (testClass.error() != null)
 			{
-				e.printStackTrace();
-				allPassed = false;
+				testClass.error().printStackTrace(System.out);
 			}
-			catch (IllegalAccessException e)
+
+			for (TestResult result : classResults.get(i))
 			{
+				if (result.error == null)
+				{
+					System.out.println(result.test.name + " ---- passed");
+					continue;
+				}
+				failed++;
 				allPassed = false;
-				e.printStackTrace();
+				System.out.println(result.test.name + " ---- failed");
+				if (fullTraces)
+				{
+					result.error.printStackTrace(System.out);
+					System.out.println("\n");
+					continue;
+				}
+				System.out.println(result.error);
+				for (StackTraceElement frame : result.error.getStackTrace())
+				{
+					if (frame.getClassName().startsWith(testClass.name))
+					{
+						System.out.println("\tat " + frame);
+					}
+				}
 			}
 
 			// Report if test passed or not:
-			if (allPassed)
-			{
-				System.out.println(className + " ---- passed");
-			}
-			else
-			{
-				System.out.println(className + " ---- failed");
-			}
+			System.out.println(testClass.name + (allPassed ? " ---- passed" : " ---- failed"));
 		}
+		return failed;
 	}
 }